@@ -0,0 +1,64 @@
+package com.projects147.testing.benchmark;
+
+import com.projects147.testing.SpringBootTestingApplication;
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.service.EmployeeService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+//    The real application context on a private in-memory H2 database, without the web layer
+    static ConfigurableApplicationContext start(String... properties) {
+        return run(WebApplicationType.NONE, properties);
+    }
+
+//    Same, with the web layer on a random port and without admission control, which would shed the benchmark's load
+    static ConfigurableApplicationContext startWeb(String... properties) {
+        List<String> arguments = new ArrayList<>(List.of("server.port=0", "employees.admission.enabled=false"));
+        arguments.addAll(List.of(properties));
+        return run(WebApplicationType.SERVLET, arguments.toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType type, String... properties) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.database=H2",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN"));
+        arguments.addAll(List.of(properties));
+//        Passed as command-line arguments so they win over application.yml
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(type)
+                .run(arguments.stream().map(argument -> "--" + argument).toArray(String[]::new));
+    }
+
+    static List<Long> seed(EmployeeService employeeService, int rows) {
+        List<Long> ids = new ArrayList<>(rows);
+        List<Employee> chunk = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            chunk.add(employee(i));
+            if (chunk.size() == 500 || i == rows - 1) {
+                employeeService.saveEmployees(chunk).forEach(result -> ids.add(result.id()));
+                chunk = new ArrayList<>();
+            }
+        }
+        return ids;
+    }
+
+    static Employee employee(long n) {
+        return Employee.builder().firstName("First" + n).lastName("Last" + (n % 1000)).email("employee" + n + "@bench.test").build();
+    }
+
+}
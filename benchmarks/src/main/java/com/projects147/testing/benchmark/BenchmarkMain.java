@@ -0,0 +1,21 @@
+package com.projects147.testing.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+//    Same CLI as org.openjdk.jmh.Main, but results go to jmh-result.json unless told otherwise
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        if (!arguments.contains("-rf"))
+            arguments.addAll(List.of("-rf", "json"));
+        if (!arguments.contains("-rff"))
+            arguments.addAll(List.of("-rff", "jmh-result.json"));
+        org.openjdk.jmh.Main.main(arguments.toArray(String[]::new));
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.projects147.testing.benchmark;
+
+import com.projects147.testing.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Whole requests over loopback, so a miss or duplicate pays for everything it costs in production: the throw, the
+// exception resolution and whatever dispatch the error response takes. getExisting is the baseline to compare with.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeErrorPathBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUri;
+
+    private List<Long> ids;
+
+    private HttpRequest duplicate;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.startWeb();
+        ids = BenchmarkApplication.seed(context.getBean(EmployeeService.class), ROWS);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUri = "http://localhost:" + port + "/api/employees";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        duplicate = HttpRequest.newBuilder(URI.create(baseUri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"firstName\":\"First0\",\"lastName\":\"Last0\",\"email\":\"employee0@bench.test\"}"))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getExisting() throws IOException, InterruptedException {
+        return get(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    @Benchmark
+    public int getMissing() throws IOException, InterruptedException {
+        return get(-1L - ThreadLocalRandom.current().nextInt(ROWS));
+    }
+
+    @Benchmark
+    public int createDuplicate() throws IOException, InterruptedException {
+        return client.send(duplicate, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int get(long id) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "/" + id)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+}
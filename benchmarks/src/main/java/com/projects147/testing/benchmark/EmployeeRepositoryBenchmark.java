@@ -0,0 +1,99 @@
+package com.projects147.testing.benchmark;
+
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeFingerprint;
+import com.projects147.testing.repository.EmployeeRepository;
+import com.projects147.testing.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeRepositoryBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    private List<Long> ids;
+
+    private Set<String> batchEmails;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start();
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        ids = BenchmarkApplication.seed(context.getBean(EmployeeService.class), rows);
+        batchEmails = IntStream.range(0, 500).mapToObj(i -> BenchmarkApplication.employee(i * 2L).getEmail()).collect(Collectors.toSet());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> findById() {
+        return employeeRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Employee> findByEmail() {
+        return employeeRepository.findByEmail(BenchmarkApplication.employee(ThreadLocalRandom.current().nextInt(rows)).getEmail());
+    }
+
+    @Benchmark
+    public List<Employee> findKeysetPageOf100() {
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(randomId(), Limit.of(100));
+    }
+
+    @Benchmark
+    public Set<String> findEmailsByEmailInOf500() {
+        return employeeRepository.findEmailsByEmailIn(batchEmails);
+    }
+
+//    The list ETag; compare with findAll, the query an unconditional list request runs after it
+    @Benchmark
+    public EmployeeFingerprint fingerprint() {
+        return employeeRepository.fingerprint();
+    }
+
+    @Benchmark
+    @Measurement(iterations = 3, time = 5)
+    public List<Employee> findAll() {
+        return employeeRepository.findAll();
+    }
+
+    private long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.projects147.testing.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.projects147.testing.model.Employee;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeSerializationBenchmark {
+
+    private static final TypeReference<List<Employee>> EMPLOYEE_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+//    The formats EmployeeController negotiates; json-gzip is JSON as sent with server compression on
+    @Param({"json", "json-gzip", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+
+    private Employee employee;
+
+    private List<Employee> employees;
+
+    private byte[] employeesPayload;
+
+    @Setup
+    public void setup() throws IOException {
+//        Built the way Spring Boot builds the mappers used by the controllers and message converters
+        objectMapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        employees = LongStream.range(0, size).mapToObj(i -> {
+            Employee e = BenchmarkApplication.employee(i);
+            e.setId(i + 1);
+            e.setVersion(0L);
+            return e;
+        }).toList();
+        employee = employees.get(0);
+        employeesPayload = serialize(employees);
+    }
+
+//    Payload size is a property of the data, not of time. An events counter is reported as it stands at the end of each
+//    iteration, so serializeEmployeeList sets it rather than adding to it, and JMH lists it as a secondary result.
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+
+        public long bytes;
+
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws IOException {
+        return serialize(employee);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployeeList(Payload payload) throws IOException {
+        byte[] bytes = serialize(employees);
+        payload.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public List<Employee> deserializeEmployeeList() throws IOException {
+        InputStream in = new ByteArrayInputStream(employeesPayload);
+        try (InputStream payload = format.equals("json-gzip") ? new GZIPInputStream(in) : in) {
+            return objectMapper.readValue(payload, EMPLOYEE_LIST);
+        }
+    }
+
+    private byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = format.equals("json-gzip") ? new GZIPOutputStream(bytes) : bytes) {
+            objectMapper.writeValue(out, value);
+        }
+        return bytes.toByteArray();
+    }
+
+}
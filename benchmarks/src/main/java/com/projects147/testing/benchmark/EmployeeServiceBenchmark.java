@@ -0,0 +1,86 @@
+package com.projects147.testing.benchmark;
+
+import com.projects147.testing.exception.ResourceNotFoundException;
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"10000", "0"})
+    private int cacheSize;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private List<Long> ids;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start("employees.cache.maximum-size=" + cacheSize);
+        employeeService = context.getBean(EmployeeService.class);
+        ids = BenchmarkApplication.seed(employeeService, rows);
+        sequence.set(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(BenchmarkApplication.employee(sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeByIdHot() {
+        return employeeService.getEmployeeById(ids.get(0));
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeByIdUniform() {
+        return employeeService.getEmployeeById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+//    Probing for ids that do not exist; with the cache on, the miss itself is cached and only the throw is left
+    @Benchmark
+    public Object getEmployeeByIdMiss() {
+        try {
+            return employeeService.getEmployeeById(-1L - ThreadLocalRandom.current().nextInt(1000));
+        } catch (ResourceNotFoundException e) {
+            return e;
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.projects147.testing.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cold starts of the packaged application in separate JVMs, in the default mode and in the mode built by -Pprod (AOT
+// bean definitions, CDS archive, no schema update). Not a JMH benchmark: every sample is a fresh process.
+//
+//   mvn package -Pprod -DskipTests && (cd benchmarks && mvn package)
+//   java -cp benchmarks/target/benchmarks.jar com.projects147.testing.benchmark.StartupBenchmark [--app.property=...]
+//
+// Arguments are passed on to the application, e.g. --spring.datasource.url=... for the database to start against.
+// -Dstartup.runs (default 5) sets the samples per mode, -Dstartup.target the application's target directory and
+// -Dstartup.classpath extra jars for both modes, such as a JDBC driver the application does not ship with.
+public final class StartupBenchmark {
+
+    private static final String JAR = "spring-boot-testing-0.0.1-SNAPSHOT";
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        Path target = Path.of(System.getProperty("startup.target", "target"));
+        String extraClasspath = System.getProperty("startup.classpath", "");
+        System.out.printf("%-8s %6s %22s %14s %18s%n", "mode", "runs", "first request (ms)", "rss (MB)", "jvm memory (MB)");
+        for (Mode mode : Mode.values()) {
+            List<Sample> samples = new ArrayList<>();
+            for (int i = 0; i < runs; i++)
+                samples.add(start(mode, target, extraClasspath, List.of(args)));
+            System.out.printf("%-8s %6d %22s %14s %18s%n", mode.name().toLowerCase(), runs,
+                    summary(samples.stream().mapToDouble(Sample::firstRequestMillis).toArray()),
+                    summary(samples.stream().mapToDouble(Sample::rssMegabytes).toArray()),
+                    summary(samples.stream().mapToDouble(Sample::jvmMemoryMegabytes).toArray()));
+        }
+    }
+
+    private enum Mode {
+        DEFAULT, OPTIMIZED;
+
+        List<String> command(Path target, String extraClasspath) {
+            String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            return switch (this) {
+//                The executable jar's launcher, as java -jar runs it, but with room for extra jars
+                case DEFAULT -> List.of(java, "-cp", classpath(target.resolve(JAR + "-exec.jar"), extraClasspath),
+                        "org.springframework.boot.loader.launch.JarLauncher");
+//                The archive only applies when the class path starts with the one it was recorded with
+                case OPTIMIZED -> List.of(java, "-XX:SharedArchiveFile=" + target.resolve("application.jsa"),
+                        "-Dspring.aot.enabled=true", "-cp", classpath(target.resolve(JAR + ".jar"), extraClasspath),
+                        "com.projects147.testing.SpringBootTestingApplication", "--spring.profiles.active=prod");
+            };
+        }
+
+        private static String classpath(Path jar, String extraClasspath) {
+            return extraClasspath.isEmpty() ? jar.toString() : jar + File.pathSeparator + extraClasspath;
+        }
+    }
+
+    private record Sample(double firstRequestMillis, double rssMegabytes, double jvmMemoryMegabytes) {
+    }
+
+    private static Sample start(Mode mode, Path target, String extraClasspath, List<String> args) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(mode.command(target, extraClasspath));
+        command.add("--server.port=" + port);
+        command.addAll(args);
+        Path log = Files.createTempFile("startup-" + mode.name().toLowerCase() + "-", ".log");
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            String base = "http://localhost:" + port;
+            awaitFirstRequest(process, base + "/api/employees?limit=1", started, log);
+            double firstRequestMillis = (System.nanoTime() - started) / 1e6;
+            return new Sample(firstRequestMillis, rssMegabytes(process.pid()), jvmMemoryMegabytes(base));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS))
+                process.destroyForcibly();
+        }
+    }
+
+//    A request the application can only answer once it has a database connection and a dispatcher servlet
+    private static void awaitFirstRequest(Process process, String uri, long started, Path log) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri)).build();
+        while (System.nanoTime() - started < TIMEOUT.toNanos()) {
+            if (!process.isAlive())
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+            try {
+                if (CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200)
+                    return;
+            } catch (ConnectException e) {
+//                Not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No successful request within " + TIMEOUT + ", see " + log);
+    }
+
+//    Resident set size as the kernel sees it, which includes the mapped archive; only available on Linux
+    private static double rssMegabytes(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status))
+            return Double.NaN;
+        for (String line : Files.readAllLines(status))
+            if (line.startsWith("VmRSS:"))
+                return Long.parseLong(line.replaceAll("\\D", "")) / 1024.0;
+        return Double.NaN;
+    }
+
+    private static double jvmMemoryMegabytes(String base) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/actuator/metrics/jvm.memory.used")).build();
+        JsonNode metric = OBJECT_MAPPER.readTree(CLIENT.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        return metric.path("measurements").path(0).path("value").asDouble(Double.NaN) / (1024 * 1024);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String summary(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return String.format("%.0f (min %.0f)", sorted[sorted.length / 2], sorted[0]);
+    }
+
+}
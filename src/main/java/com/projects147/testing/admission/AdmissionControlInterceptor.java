@@ -0,0 +1,128 @@
+package com.projects147.testing.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.projects147.testing.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Rejects work the service cannot take on before it reaches the connection pool: a token bucket per client and endpoint
+// answers 429, and a bounded number of concurrent reads and writes, with a short queue behind each, answers 503
+public class AdmissionControlInterceptor implements HandlerInterceptor, MeterBinder {
+
+    private static final String ADMITTED_BY = AdmissionControlInterceptor.class.getName() + ".admittedBy";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final String clientHeader;
+
+    private final Gate read;
+
+    private final Gate write;
+
+    public AdmissionControlInterceptor(AdmissionProperties properties) {
+        this.clientHeader = properties.clientHeader();
+        this.read = new Gate("read", properties.read());
+        this.write = new Gate("write", properties.write());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Gate gate = READ_METHODS.contains(request.getMethod()) ? read : write;
+        String endpoint = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        long wait = gate.bucket(client(request) + " " + endpoint).tryTake(System.nanoTime());
+        if (wait > 0) {
+            gate.count("rate_limited");
+            throw new AdmissionRejectedException(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded for " + endpoint,
+                    seconds(wait));
+        }
+        ConcurrencyLimiter.Outcome outcome = gate.limiter.acquire();
+        gate.count(outcome.name().toLowerCase());
+        if (outcome == ConcurrencyLimiter.Outcome.SHED)
+            throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE, "Too many " + gate.name + " requests in progress",
+                    seconds(gate.limits.maxQueueWait().toNanos()));
+        request.setAttribute(ADMITTED_BY, gate);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED_BY) instanceof Gate gate) {
+            request.removeAttribute(ADMITTED_BY);
+            gate.limiter.release();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        read.bindTo(registry);
+        write.bindTo(registry);
+    }
+
+    private String client(HttpServletRequest request) {
+        String client = clientHeader == null || clientHeader.isBlank() ? null : request.getHeader(clientHeader);
+        return client != null ? client : request.getRemoteAddr();
+    }
+
+//    Retry-After is in whole seconds; rounding down would invite the client back before anything has changed
+    private static long seconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static class Gate {
+
+        private final String name;
+
+        private final AdmissionProperties.Limits limits;
+
+        private final ConcurrencyLimiter limiter;
+
+//        An idle bucket is full again after burst / rate, so dropping it by then loses nothing
+        private final Cache<String, TokenBucket> buckets;
+
+        private final Map<String, LongAdder> outcomes = new LinkedHashMap<>();
+
+        Gate(String name, AdmissionProperties.Limits limits) {
+            this.name = name;
+            this.limits = limits;
+            this.limiter = new ConcurrencyLimiter(limits.maxConcurrent(), limits.maxQueued(), limits.maxQueueWait().toNanos());
+            this.buckets = Caffeine.newBuilder()
+                    .expireAfterAccess(Duration.ofNanos((long) Math.ceil(limits.burst() / limits.rate() * 1_000_000_000d)))
+                    .maximumSize(100_000)
+                    .build();
+            for (String outcome : new String[]{"admitted", "queued", "shed", "rate_limited"})
+                outcomes.put(outcome, new LongAdder());
+        }
+
+        TokenBucket bucket(String key) {
+            return buckets.get(key, k -> new TokenBucket(limits.rate(), limits.burst(), System.nanoTime()));
+        }
+
+        void count(String outcome) {
+            outcomes.get(outcome).increment();
+        }
+
+        void bindTo(MeterRegistry registry) {
+            outcomes.forEach((outcome, count) -> FunctionCounter.builder("employees.admission.requests", count, LongAdder::sum)
+                    .tag("kind", name).tag("outcome", outcome).register(registry));
+            Gauge.builder("employees.admission.active", limiter, ConcurrencyLimiter::active).tag("kind", name).register(registry);
+            Gauge.builder("employees.admission.queued", limiter, ConcurrencyLimiter::queued).tag("kind", name).register(registry);
+        }
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.projects147.testing.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// clientHeader: trusted header naming the caller (e.g. set by a gateway); without it clients are told apart by address
+@ConfigurationProperties("employees.admission")
+public record AdmissionProperties(String clientHeader, @DefaultValue Limits read, @DefaultValue Limits write) {
+
+//    rate and burst apply per client and endpoint; maxConcurrent and maxQueued are shared by every endpoint of the kind
+    public record Limits(@DefaultValue("100") double rate,
+                         @DefaultValue("200") int burst,
+                         @DefaultValue("16") int maxConcurrent,
+                         @DefaultValue("64") int maxQueued,
+                         @DefaultValue("1s") Duration maxQueueWait) {
+    }
+
+}
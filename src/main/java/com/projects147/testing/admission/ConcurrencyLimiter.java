@@ -0,0 +1,61 @@
+package com.projects147.testing.admission;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// At most maxConcurrent requests run; up to maxQueued more wait up to maxQueueWait for a slot, the rest are shed at once
+class ConcurrencyLimiter {
+
+    enum Outcome {
+        ADMITTED, QUEUED, SHED
+    }
+
+    private final int maxConcurrent;
+
+    private final Semaphore permits;
+
+    private final int maxQueued;
+
+    private final long maxQueueWaitNanos;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    ConcurrencyLimiter(int maxConcurrent, int maxQueued, long maxQueueWaitNanos) {
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxQueued = maxQueued;
+        this.maxQueueWaitNanos = maxQueueWaitNanos;
+    }
+
+//    ADMITTED and QUEUED both hold a permit that must be released; QUEUED means it had to wait for it
+    Outcome acquire() {
+        if (permits.tryAcquire())
+            return Outcome.ADMITTED;
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return Outcome.SHED;
+        }
+        try {
+            return permits.tryAcquire(maxQueueWaitNanos, TimeUnit.NANOSECONDS) ? Outcome.QUEUED : Outcome.SHED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.SHED;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.projects147.testing.admission;
+
+// Refills continuously at rate tokens per second up to burst; each request takes one token
+class TokenBucket {
+
+    private final double tokensPerNano;
+
+    private final double capacity;
+
+    private double tokens;
+
+    private long refilledAt;
+
+    TokenBucket(double ratePerSecond, int burst, long now) {
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.capacity = burst;
+        this.tokens = burst;
+        this.refilledAt = now;
+    }
+
+//    Returns 0 when a token was taken, otherwise the nanos until the next one is due
+    synchronized long tryTake(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.projects147.testing.cache;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class Collation {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}");
+
+    private Collation() {
+    }
+
+//    MySQL compares strings case- and accent-insensitively, so in-memory structures have to fold both away as well
+    public static String fold(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
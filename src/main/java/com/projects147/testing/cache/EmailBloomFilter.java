@@ -0,0 +1,192 @@
+package com.projects147.testing.cache;
+
+import com.projects147.testing.event.EmployeeChangedEvent;
+import com.projects147.testing.repository.EmployeeRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+@Component
+@Slf4j
+public class EmailBloomFilter implements MeterBinder {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final int numBits;
+
+    private final int numHashes;
+
+    private final Object rebuildLock = new Object();
+
+    private final LongAdder definitelyNew = new LongAdder();
+
+    private final LongAdder maybePresent = new LongAdder();
+
+    private final LongAdder falsePositives = new LongAdder();
+
+    private volatile AtomicLongArray bits;
+
+    private volatile AtomicLongArray rebuilding;
+
+    private volatile boolean ready;
+
+    public EmailBloomFilter(EmployeeRepository employeeRepository, EmailBloomFilterProperties properties) {
+        this.employeeRepository = employeeRepository;
+        double n = Math.max(1, properties.expectedInsertions());
+        long optimalBits = (long) Math.ceil(-n * Math.log(properties.falsePositiveProbability()) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, optimalBits));
+        this.numHashes = Math.max(1, (int) Math.round(numBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((numBits + 63) / 64);
+    }
+
+//    Until the first build finishes every email "might" be present, so callers fall back to checking the database
+    public boolean mightContain(String email) {
+        if (email == null || !ready) {
+            maybePresent.increment();
+            return true;
+        }
+        boolean result = contains(bits, email);
+        (result ? maybePresent : definitelyNew).increment();
+        return result;
+    }
+
+    public void add(String email) {
+        if (email == null)
+            return;
+        synchronized (this) {
+            put(bits, email);
+            AtomicLongArray target = rebuilding;
+            if (target != null)
+                put(target, email);
+        }
+    }
+
+    public void addAll(Collection<String> emails) {
+        emails.forEach(this::add);
+    }
+
+//    Before the first build every check answers "might", which says nothing about the filter's false positive rate
+    public void recordFalsePositive() {
+        if (ready)
+            falsePositives.increment();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long started = System.nanoTime();
+            AtomicLongArray fresh = new AtomicLongArray(bits.length());
+//            Writes that land while we scan go into both arrays, so nothing committed after the scan started is lost
+            rebuilding = fresh;
+            long count = 0;
+            try (Stream<String> emails = employeeRepository.streamAllEmails()) {
+                for (String email : (Iterable<String>) emails::iterator) {
+                    put(fresh, email);
+                    count++;
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    rebuilding = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                bits = fresh;
+                rebuilding = null;
+            }
+            ready = true;
+            log.info("Rebuilt email filter with {} emails in {} ms", count, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.employee() != null)
+            add(event.employee().getEmail());
+    }
+
+    public Stats stats() {
+        long negatives = definitelyNew.sum();
+        long positives = falsePositives.sum();
+        return new Stats(ready, numBits, numHashes, bitsSet(), expectedFalsePositiveProbability(),
+                negatives, maybePresent.sum(), positives,
+                negatives + positives == 0 ? 0.0 : (double) positives / (negatives + positives));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employees.email.filter.checks", definitelyNew, LongAdder::sum)
+                .tag("result", "definitely-new").register(registry);
+        FunctionCounter.builder("employees.email.filter.checks", maybePresent, LongAdder::sum)
+                .tag("result", "maybe-present").register(registry);
+        FunctionCounter.builder("employees.email.filter.false.positives", falsePositives, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("employees.email.filter.expected.fpp", this, EmailBloomFilter::expectedFalsePositiveProbability)
+                .register(registry);
+    }
+
+    public record Stats(boolean ready, int bits, int hashes, long bitsSet, double expectedFalsePositiveProbability,
+                        long definitelyNewChecks, long maybePresentChecks, long falsePositives,
+                        double observedFalsePositiveRate) {
+    }
+
+    private double expectedFalsePositiveProbability() {
+        return Math.pow((double) bitsSet() / numBits, numHashes);
+    }
+
+    private long bitsSet() {
+        AtomicLongArray current = bits;
+        long set = 0;
+        for (int i = 0; i < current.length(); i++)
+            set += Long.bitCount(current.get(i));
+        return set;
+    }
+
+    private boolean contains(AtomicLongArray target, String email) {
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            if ((target.get(bit >>> 6) & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    private void put(AtomicLongArray target, String email) {
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            long mask = 1L << bit;
+            target.getAndUpdate(bit >>> 6, word -> word | mask);
+        }
+    }
+
+//    64-bit FNV-1a; the two halves feed the double hashing above
+    private static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : Collation.fold(email).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+}
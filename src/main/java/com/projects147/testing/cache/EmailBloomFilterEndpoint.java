@@ -0,0 +1,27 @@
+package com.projects147.testing.cache;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "emailfilter")
+@AllArgsConstructor
+public class EmailBloomFilterEndpoint {
+
+    private final EmailBloomFilter emailBloomFilter;
+
+    @ReadOperation
+    public EmailBloomFilter.Stats stats() {
+        return emailBloomFilter.stats();
+    }
+
+    @WriteOperation
+    public EmailBloomFilter.Stats rebuild() {
+        emailBloomFilter.rebuild();
+        return emailBloomFilter.stats();
+    }
+
+}
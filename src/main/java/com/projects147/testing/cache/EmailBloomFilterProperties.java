@@ -0,0 +1,9 @@
+package com.projects147.testing.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("employees.email-filter")
+public record EmailBloomFilterProperties(@DefaultValue("1000000") long expectedInsertions,
+                                         @DefaultValue("0.01") double falsePositiveProbability) {
+}
@@ -0,0 +1,84 @@
+package com.projects147.testing.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.projects147.testing.datasource.ReplicaRoutingDataSource;
+import com.projects147.testing.event.EmployeeChangedEvent;
+import com.projects147.testing.model.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.function.LongFunction;
+
+@Component
+public class EmployeeCache implements MeterBinder {
+
+    private final Cache<Long, Optional<Employee>> cache;
+
+    private final Cache<Long, Boolean> recentlyChanged;
+
+    public EmployeeCache(EmployeeCacheProperties properties) {
+//        Misses are cached too, but only briefly, so probing for unknown ids does not reach the database every time
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new PresenceExpiry(properties.ttl().toNanos(), properties.negativeTtl().toNanos()))
+                .recordStats()
+                .build();
+        this.recentlyChanged = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.replicaLag())
+                .build();
+    }
+
+//    A replica may still hold the old row for a moment after a change, and caching that would keep it for the whole ttl
+    public Optional<Employee> get(long id, LongFunction<Optional<Employee>> loader) {
+        return cache.get(id, key -> recentlyChanged.getIfPresent(key) == null
+                ? loader.apply(key)
+                : ReplicaRoutingDataSource.onPrimary(() -> loader.apply(key)));
+    }
+
+    public void evict(long id) {
+        cache.invalidate(id);
+    }
+
+//    After commit, so a concurrent reader cannot reload the old row between the eviction and the commit. After the
+//    Hibernate regions and before the representation cache, which is rebuilt from this one.
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        recentlyChanged.put(event.id(), Boolean.TRUE);
+        evict(event.id());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "employees");
+    }
+
+    private record PresenceExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<Long, Optional<Employee>> {
+
+        @Override
+        public long expireAfterCreate(Long id, Optional<Employee> employee, long currentTime) {
+            return employee.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long id, Optional<Employee> employee, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, employee, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long id, Optional<Employee> employee, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
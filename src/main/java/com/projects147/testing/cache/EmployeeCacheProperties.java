@@ -0,0 +1,13 @@
+package com.projects147.testing.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("employees.cache")
+public record EmployeeCacheProperties(@DefaultValue("10000") long maximumSize,
+                                      @DefaultValue("10m") Duration ttl,
+                                      @DefaultValue("5s") Duration negativeTtl,
+                                      @DefaultValue("2s") Duration replicaLag) {
+}
@@ -0,0 +1,68 @@
+package com.projects147.testing.cache;
+
+import com.projects147.testing.event.EmployeeChangedEvent;
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.repository.EmployeeRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+// Hibernate keeps its regions current for the statements it runs itself, but not for JDBC batch inserts, the single-row
+// native writes or changes replayed from other nodes, so every change evicts the employee and the cached query results
+// that could include it
+@Component
+@ConditionalOnProperty(name = "employees.hibernate-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class EmployeeHibernateCache implements MeterBinder {
+
+    private static final List<String> QUERY_REGIONS = List.of(EmployeeRepository.BY_EMAIL_REGION, EmployeeRepository.BY_NAME_REGION);
+
+    private final Cache cache;
+
+    private final Statistics statistics;
+
+    public EmployeeHibernateCache(EntityManagerFactory entityManagerFactory) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.cache = sessionFactory.getCache();
+        this.statistics = sessionFactory.getStatistics();
+    }
+
+//    Before EmployeeCache evicts, so a reload it triggers cannot be served the old row from here
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        cache.evictEntityData(Employee.class, event.id());
+        QUERY_REGIONS.forEach(cache::evictQueryRegion);
+    }
+
+//    Actuator's Hibernate metrics break entity regions down by region but report the query cache only as a whole
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : QUERY_REGIONS) {
+            FunctionCounter.builder("employees.query.cache.requests", region, name -> count(name, CacheRegionStatistics::getHitCount))
+                    .tags("region", region, "result", "hit").register(registry);
+            FunctionCounter.builder("employees.query.cache.requests", region, name -> count(name, CacheRegionStatistics::getMissCount))
+                    .tags("region", region, "result", "miss").register(registry);
+            FunctionCounter.builder("employees.query.cache.puts", region, name -> count(name, CacheRegionStatistics::getPutCount))
+                    .tags("region", region).register(registry);
+        }
+    }
+
+    private double count(String region, ToLongFunction<CacheRegionStatistics> count) {
+        CacheRegionStatistics regionStatistics = statistics.getQueryRegionStatistics(region);
+        return regionStatistics == null ? 0 : count.applyAsLong(regionStatistics);
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.projects147.testing.cache;
+
+import com.projects147.testing.event.EmployeeChangedEvent;
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeSuggestion;
+import com.projects147.testing.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+// Sorted in-memory copy of every employee's name, so type-ahead is a range scan instead of a database round trip
+@Component
+@ConditionalOnProperty(name = "employees.name-index.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class EmployeeNameIndex implements MeterBinder {
+
+    private static final char KEY_SEPARATOR = '\0';
+
+    private final EmployeeRepository employeeRepository;
+
+//    Each employee appears twice, as "first last" and "last first", so a prefix of either name matches
+    private final ConcurrentSkipListMap<String, EmployeeSuggestion> entries = new ConcurrentSkipListMap<>();
+
+    private final Map<Long, EmployeeSuggestion> employees = new ConcurrentHashMap<>();
+
+    private volatile Set<Long> changedDuringRebuild;
+
+    private volatile boolean ready;
+
+    public EmployeeNameIndex(EmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<EmployeeSuggestion> suggest(String prefix, int limit) {
+        String from = fold(prefix);
+        NavigableMap<String, EmployeeSuggestion> matches = entries.subMap(from, true, from + Character.MAX_VALUE, false);
+//        Both keys of one employee can match (e.g. "jo" for John Jones), so de-duplicate while walking the range
+        Set<EmployeeSuggestion> suggestions = new LinkedHashSet<>();
+        for (EmployeeSuggestion suggestion : matches.values()) {
+            suggestions.add(suggestion);
+            if (suggestions.size() == limit)
+                break;
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+//        Rows changed by events while we scan are newer than what the scan returns, so the scan must not overwrite them
+        changedDuringRebuild = ConcurrentHashMap.newKeySet();
+        try (Stream<EmployeeSuggestion> suggestions = employeeRepository.streamAllSuggestions()) {
+            suggestions.forEach(suggestion -> {
+                if (!changedDuringRebuild.contains(suggestion.id()))
+                    put(suggestion);
+            });
+        } finally {
+            changedDuringRebuild = null;
+        }
+        ready = true;
+        log.info("Rebuilt name index with {} employees in {} ms", employees.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null)
+            changed.add(event.id());
+        if (event.type() == EmployeeChangedEvent.Type.DELETED) {
+            remove(event.id());
+            return;
+        }
+        Employee employee = event.employee();
+        employees.compute(event.id(), (id, previous) -> {
+//            A patch only carries the fields that changed, so fill the rest in from what we already have
+            String firstName = employee.getFirstName() != null ? employee.getFirstName() : previous == null ? null : previous.firstName();
+            String lastName = employee.getLastName() != null ? employee.getLastName() : previous == null ? null : previous.lastName();
+            if (previous != null)
+                removeKeys(previous);
+            if (firstName == null || lastName == null)
+                return null;
+            EmployeeSuggestion current = new EmployeeSuggestion(id, firstName, lastName);
+            putKeys(current);
+            return current;
+        });
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employees.name.index.size", this, EmployeeNameIndex::size).register(registry);
+    }
+
+    private void put(EmployeeSuggestion suggestion) {
+        employees.compute(suggestion.id(), (id, previous) -> {
+            if (previous != null)
+                removeKeys(previous);
+            putKeys(suggestion);
+            return suggestion;
+        });
+    }
+
+    private void remove(long id) {
+        employees.computeIfPresent(id, (key, previous) -> {
+            removeKeys(previous);
+            return null;
+        });
+    }
+
+    private void putKeys(EmployeeSuggestion suggestion) {
+        entries.put(key(suggestion.firstName(), suggestion.lastName(), suggestion.id()), suggestion);
+        entries.put(key(suggestion.lastName(), suggestion.firstName(), suggestion.id()), suggestion);
+    }
+
+    private void removeKeys(EmployeeSuggestion suggestion) {
+        entries.remove(key(suggestion.firstName(), suggestion.lastName(), suggestion.id()));
+        entries.remove(key(suggestion.lastName(), suggestion.firstName(), suggestion.id()));
+    }
+
+    private static String key(String first, String second, long id) {
+        return fold(first + " " + second) + KEY_SEPARATOR + id;
+    }
+
+    private static String fold(String name) {
+        return Collation.fold(name.strip().replaceAll("\\s+", " "));
+    }
+
+}
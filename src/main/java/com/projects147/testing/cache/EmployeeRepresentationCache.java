@@ -0,0 +1,78 @@
+package com.projects147.testing.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.projects147.testing.event.EmployeeChangedEvent;
+import com.projects147.testing.model.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.io.UncheckedIOException;
+import java.util.function.LongFunction;
+
+// Serialized JSON of hot employees with their ETag, so repeat reads neither serialize nor, when the ETag matches, send a body
+@Component
+public class EmployeeRepresentationCache implements MeterBinder {
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<Long, Representation> cache;
+
+    public EmployeeRepresentationCache(ObjectMapper objectMapper, EmployeeRepresentationCacheProperties properties) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.maximumSize().toBytes())
+                .weigher((Long id, Representation representation) -> representation.body().length)
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+    }
+
+    public Representation get(long id, LongFunction<Employee> loader) {
+        return cache.get(id, key -> serialize(loader.apply(key)));
+    }
+
+    public void evict(long id) {
+        cache.invalidate(id);
+    }
+
+//    After EmployeeCache evicts, so a representation rebuilt right after this is serialized from the new row
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 2)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        evict(event.id());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "employee-representations");
+    }
+
+//    The version changes on every write, so id and version identify the bytes; the hash only covers rows without one
+    public static String etag(Employee employee, byte[] body) {
+        if (employee.getId() != null && employee.getVersion() != null)
+            return "\"" + employee.getId() + "-" + employee.getVersion() + "\"";
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    private Representation serialize(Employee employee) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(employee);
+            return new Representation(etag(employee, body), body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record Representation(String etag, byte[] body) {
+    }
+
+}
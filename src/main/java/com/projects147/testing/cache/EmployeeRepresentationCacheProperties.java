@@ -0,0 +1,12 @@
+package com.projects147.testing.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties("employees.representation-cache")
+public record EmployeeRepresentationCacheProperties(@DefaultValue("32MB") DataSize maximumSize,
+                                                    @DefaultValue("10m") Duration ttl) {
+}
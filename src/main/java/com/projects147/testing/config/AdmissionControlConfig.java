@@ -0,0 +1,34 @@
+package com.projects147.testing.config;
+
+import com.projects147.testing.admission.AdmissionControlInterceptor;
+import com.projects147.testing.admission.AdmissionProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Properties are enabled here rather than found by the scan, so @WebMvcTest slices pick up the same admission control
+@Configuration
+@ConditionalOnProperty(name = "employees.admission.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionControlConfig implements WebMvcConfigurer {
+
+    private final AdmissionProperties properties;
+
+    public AdmissionControlConfig(AdmissionProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public AdmissionControlInterceptor admissionControlInterceptor() {
+        return new AdmissionControlInterceptor(properties);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionControlInterceptor()).addPathPatterns("/api/employees/**");
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.projects147.testing.config;
+
+import com.projects147.testing.datasource.ReadYourWritesFilter;
+import com.projects147.testing.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Only active when employees.datasource.replica.url is set; otherwise Boot configures the single spring.datasource as before
+@Configuration
+@ConditionalOnProperty(prefix = "employees.datasource.replica", name = "url")
+public class DataSourceRoutingConfig {
+
+    public static final String PRIMARY_DATA_SOURCE = "primaryDataSource";
+
+    public static final String REPLICA_DATA_SOURCE = "replicaDataSource";
+
+    @Bean(PRIMARY_DATA_SOURCE)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean(REPLICA_DATA_SOURCE)
+    @ConfigurationProperties("employees.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceRoutingProperties properties) {
+        HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(properties.url()).username(properties.username()).password(properties.password()).build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+//        A replica that is down should cost a read one second before it falls back, not Hikari's default thirty
+        replica.setConnectionTimeout(1000);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier(PRIMARY_DATA_SOURCE) DataSource primary,
+                                                             @Qualifier(REPLICA_DATA_SOURCE) DataSource replica,
+                                                             DataSourceRoutingProperties properties) {
+        return new ReplicaRoutingDataSource(primary, replica, properties.fallbackToPrimary(), properties.retryInterval(),
+                properties.readYourWritesWindow());
+    }
+
+//    The transaction manager takes its connection before it marks the transaction read-only, so the physical connection
+//    is only fetched, and the route chosen, when the first statement runs
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(DataSourceRoutingProperties properties) {
+        return new ReadYourWritesFilter(properties.readYourWritesWindow());
+    }
+
+}
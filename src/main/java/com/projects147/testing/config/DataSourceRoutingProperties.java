@@ -0,0 +1,16 @@
+package com.projects147.testing.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// Pool settings for the replica go under employees.datasource.replica.hikari, as spring.datasource.hikari does for the primary
+@ConfigurationProperties("employees.datasource.replica")
+public record DataSourceRoutingProperties(String url,
+                                          String username,
+                                          String password,
+                                          @DefaultValue("true") boolean fallbackToPrimary,
+                                          @DefaultValue("5s") Duration retryInterval,
+                                          @DefaultValue("2s") Duration readYourWritesWindow) {
+}
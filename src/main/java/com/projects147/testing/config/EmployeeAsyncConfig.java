@@ -0,0 +1,44 @@
+package com.projects147.testing.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class EmployeeAsyncConfig {
+
+    public static final String READ_EXECUTOR = "employeeReadExecutor";
+
+    public static final String WRITE_EXECUTOR = "employeeWriteExecutor";
+
+    @Bean(name = READ_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService employeeReadExecutor(EmployeeAsyncProperties properties, MeterRegistry registry) {
+        return bulkhead("employees.read", properties.read(), registry);
+    }
+
+    @Bean(name = WRITE_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService employeeWriteExecutor(EmployeeAsyncProperties properties, MeterRegistry registry) {
+        return bulkhead("employees.write", properties.write(), registry);
+    }
+
+//    Fixed-size pool with a bounded queue: once both are full, work is rejected instead of piling up behind a slow database
+    private static ExecutorService bulkhead(String name, EmployeeAsyncProperties.Bulkhead bulkhead, MeterRegistry registry) {
+        Counter rejections = Counter.builder("employees.bulkhead.rejections").tag("bulkhead", name).register(registry);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(bulkhead.threads(), bulkhead.threads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(bulkhead.queueCapacity()), new CustomizableThreadFactory(name + "-"),
+                (task, pool) -> {
+                    rejections.increment();
+                    new ThreadPoolExecutor.AbortPolicy().rejectedExecution(task, pool);
+                });
+        return ExecutorServiceMetrics.monitor(registry, executor, name);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.projects147.testing.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("employees.async")
+public record EmployeeAsyncProperties(@DefaultValue Bulkhead read, @DefaultValue Bulkhead write) {
+
+    public record Bulkhead(@DefaultValue("8") int threads, @DefaultValue("100") int queueCapacity) {
+    }
+
+}
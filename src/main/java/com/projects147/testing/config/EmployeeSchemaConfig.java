@@ -0,0 +1,106 @@
+package com.projects147.testing.config;
+
+import com.projects147.testing.model.Employee;
+import org.flywaydb.core.api.MigrationVersion;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+// Checks on the employees schema that neither ddl-auto nor validate make: whether the unique email key exists, and which
+// migration a schema that ddl-auto: update created without Flyway already matches
+@Configuration
+public class EmployeeSchemaConfig {
+
+    private static final String EMPLOYEES = "employees";
+
+    private static final String EMAIL = "email";
+
+//    ddl-auto: update only logs a warning when duplicate emails keep it from adding the unique key, after which every
+//    duplicate check relies on a key that is not there. Run after refresh, so that the CDS training run and the migrate
+//    profile, which exit once refreshed, never connect for it.
+    @Bean
+    public ApplicationRunner employeeEmailKeyCheck(DataSource dataSource) {
+        return args -> {
+            try (Connection connection = dataSource.getConnection()) {
+                DatabaseMetaData metaData = connection.getMetaData();
+                Optional<String> employees = table(connection, EMPLOYEES);
+                if (employees.isEmpty() || !indexes(connection, employees.get(), true).containsValue(List.of(EMAIL)))
+                    throw new IllegalStateException("No unique key on " + EMPLOYEES + "(" + EMAIL + ") in "
+                            + metaData.getURL() + ", duplicate emails would go undetected. Run the migrate profile "
+                            + "(see application-migrate.yml), which sets aside duplicates and adds " + Employee.EMAIL_CONSTRAINT);
+            }
+        };
+    }
+
+//    baseline-on-migrate records a schema without a history table as being at the baseline version and applies only the
+//    later migrations. A schema created by ddl-auto: update is at whichever of V1 to V4 it already matches; V5 recreates
+//    the outbox either way. Matching a later migration but not an earlier one has no baseline that works, so it stops.
+    @Bean
+    public FlywayConfigurationCustomizer employeeSchemaBaseline() {
+        return configuration -> {
+            try (Connection connection = configuration.getDataSource().getConnection()) {
+                Optional<String> employees = table(connection, EMPLOYEES);
+                if (table(connection, configuration.getTable()).isPresent() || employees.isEmpty())
+                    return;
+                Map<String, List<String>> indexes = indexes(connection, employees.get(), false);
+                List<Boolean> applied = List.of(
+                        columns(connection, employees.get()).contains("version"),
+                        indexes(connection, employees.get(), true).containsValue(List.of(EMAIL)),
+                        indexes.containsKey("idx_employees_last_first") && indexes.containsKey("idx_employees_first_last"));
+                int matched = applied.indexOf(false) < 0 ? applied.size() : applied.indexOf(false);
+                if (applied.subList(matched, applied.size()).contains(true))
+                    throw new IllegalStateException("Schema has no " + configuration.getTable() + " and is at V" + (matched + 1)
+                            + " with part of a later migration (version column, unique email key, name indexes: " + applied
+                            + "); bring it to one migration by hand and set spring.flyway.baseline-version");
+                configuration.baselineVersion(MigrationVersion.fromVersion(String.valueOf(matched + 1)));
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not inspect the schema for a Flyway baseline", e);
+            }
+        };
+    }
+
+//    Looked up case-insensitively: H2 keeps unquoted names upper case, while Flyway quotes its lower-case history table
+    private static Optional<String> table(Connection connection, String name) throws SQLException {
+        try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), connection.getSchema(), null, new String[]{"TABLE"})) {
+            while (tables.next())
+                if (tables.getString("TABLE_NAME").equalsIgnoreCase(name))
+                    return Optional.of(tables.getString("TABLE_NAME"));
+        }
+        return Optional.empty();
+    }
+
+    private static List<String> columns(Connection connection, String table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (ResultSet rows = connection.getMetaData().getColumns(connection.getCatalog(), connection.getSchema(), table, null)) {
+            while (rows.next())
+                columns.add(rows.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+        }
+        return columns;
+    }
+
+//    Index name to its columns in order, both lower case
+    private static Map<String, List<String>> indexes(Connection connection, String table, boolean unique) throws SQLException {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        try (ResultSet rows = connection.getMetaData().getIndexInfo(connection.getCatalog(), connection.getSchema(), table, unique, false)) {
+            while (rows.next())
+                if (rows.getShort("TYPE") != DatabaseMetaData.tableIndexStatistic)
+                    indexes.computeIfAbsent(rows.getString("INDEX_NAME").toLowerCase(Locale.ROOT), name -> new ArrayList<>())
+                            .add(rows.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+        }
+        return indexes;
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.projects147.testing.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.repository.EmployeeRepository;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+// Hibernate's second-level and query caches for Employee, in an in-process Caffeine JCache manager whose regions are sized
+// from employees.hibernate-cache. Without this configuration Hibernate runs without a second-level cache, as before.
+@Configuration
+@ConditionalOnProperty(name = "employees.hibernate-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class HibernateCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(HibernateCacheProperties properties) {
+        CaffeineCachingProvider provider = new CaffeineCachingProvider();
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        cacheManager.createCache(Employee.CACHE_REGION, region(properties.employee()));
+        cacheManager.createCache(EmployeeRepository.BY_EMAIL_REGION, region(properties.byEmail()));
+        cacheManager.createCache(EmployeeRepository.BY_NAME_REGION, region(properties.byName()));
+//        Hibernate insists on the default query region although every cacheable query here names its own
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(new HibernateCacheProperties.Region(100, Duration.ofMinutes(1))));
+//        When each table last changed; evicting an entry would make Hibernate trust query results it should discard
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+//            A region name that is not configured above is a mistake, not something to create unbounded
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(HibernateCacheProperties.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(region.maximumSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(region.ttl().toNanos()));
+        return configuration;
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.projects147.testing.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("employees.hibernate-cache")
+public record HibernateCacheProperties(@DefaultValue Region employee, @DefaultValue Region byEmail, @DefaultValue Region byName) {
+
+    public record Region(@DefaultValue("10000") long maximumSize, @DefaultValue("10m") Duration ttl) {
+    }
+
+}
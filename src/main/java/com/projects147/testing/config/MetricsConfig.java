@@ -0,0 +1,17 @@
+package com.projects147.testing.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+//    Endpoints (http.server.requests), Spring Data queries (spring.data.repository.invocations), Hibernate statistics
+//    and the Hikari pool are instrumented by actuator; this picks up @Timed on our own service and JDBC classes
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.projects147.testing.config;
+
+import com.projects147.testing.datasource.SqlAccountingFilter;
+import com.projects147.testing.datasource.SqlAccountingListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "employees.sql-accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccountingConfig {
+
+    private static final String DATA_SOURCE = "dataSource";
+
+    private static final String COUNT_ROWS = "employees.sql-accounting.count-rows";
+
+//    Only the data source everything connects through is wrapped: Boot's pool, or the routing proxy when a replica is
+//    configured. Wrapping the pools behind the router as well would count every statement twice. Read from the
+//    environment, as a post-processor is created before properties records can be bound.
+    @Bean
+    public static BeanPostProcessor sqlAccountingDataSourceWrapper(Environment environment) {
+        boolean countRows = environment.getProperty(COUNT_ROWS, Boolean.class, true);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!DATA_SOURCE.equals(beanName) || !(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource)
+                    return bean;
+                SqlAccountingListener listener = new SqlAccountingListener();
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(DATA_SOURCE, dataSource).listener(listener);
+                return countRows ? builder.methodListener(listener).proxyResultSet().build() : builder.build();
+            }
+        };
+    }
+
+    @Bean
+    public SqlAccountingFilter sqlAccountingFilter(MeterRegistry registry, SqlAccountingProperties properties) {
+        return new SqlAccountingFilter(registry, properties.header(), properties.repeatThreshold());
+    }
+
+}
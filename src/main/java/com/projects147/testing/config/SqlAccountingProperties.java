@@ -0,0 +1,13 @@
+package com.projects147.testing.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// The header exposes per-request database work to any client, so it is meant for development and test environments.
+// Counting the rows read wraps every result set and intercepts each next(); without it rows are only those updates report.
+@ConfigurationProperties("employees.sql-accounting")
+public record SqlAccountingProperties(@DefaultValue("true") boolean enabled,
+                                      @DefaultValue("false") boolean header,
+                                      @DefaultValue("3") int repeatThreshold,
+                                      @DefaultValue("true") boolean countRows) {
+}
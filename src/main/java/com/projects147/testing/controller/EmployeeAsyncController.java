@@ -0,0 +1,93 @@
+package com.projects147.testing.controller;
+
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeePage;
+import com.projects147.testing.model.EmployeePatch;
+import com.projects147.testing.service.EmployeeAsyncService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/async/employees")
+@AllArgsConstructor
+@Slf4j
+public class EmployeeAsyncController {
+
+    private final EmployeeAsyncService employeeAsyncService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<Employee> save(@RequestBody Employee employee) {
+        log.trace("In EmployeeAsyncController::save");
+        return employeeAsyncService.saveEmployee(employee);
+    }
+
+    @GetMapping(params = "limit")
+    @ResponseStatus(HttpStatus.OK)
+    public CompletableFuture<EmployeePage<Employee>> getPage(@RequestParam("limit") int limit,
+                                                   @RequestParam(value = "cursor", required = false) String cursor) {
+        log.trace("In EmployeeAsyncController::getPage");
+        return employeeAsyncService.getEmployeePage(cursor, limit);
+    }
+
+    @GetMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public CompletableFuture<Employee> get(@PathVariable("id") long id) {
+        log.trace("In EmployeeAsyncController::get");
+        return employeeAsyncService.getEmployeeById(id).thenApply(Optional::get);
+    }
+
+    @PutMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public CompletableFuture<Employee> update(@PathVariable("id") long id, @RequestBody Employee employee,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.trace("In EmployeeAsyncController::update");
+        employee.setId(id);
+        employee.setVersion(EmployeeController.expectedVersion(id, employee.getVersion(), ifMatch));
+        return employeeAsyncService.updateEmployee(employee);
+    }
+
+    @PatchMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public CompletableFuture<Void> patch(@PathVariable("id") long id, @RequestBody EmployeePatch patch,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.trace("In EmployeeAsyncController::patch");
+        Long version = EmployeeController.expectedVersion(id, patch.version(), ifMatch);
+        return employeeAsyncService.patchEmployee(id, patch.withVersion(version));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public CompletableFuture<Void> delete(@PathVariable("id") long id,
+                                          @RequestParam(value = "version", required = false) Long version,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.trace("In EmployeeAsyncController::delete");
+        return employeeAsyncService.deleteEmployee(id, EmployeeController.expectedVersion(id, version, ifMatch));
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> rejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+}
@@ -1,19 +1,60 @@
 package com.projects147.testing.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.projects147.testing.cache.EmployeeRepresentationCache;
+import com.projects147.testing.exception.PreconditionFailedException;
+import com.projects147.testing.exception.ResourceAlreadyPresentException;
 import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeBatchResult;
+import com.projects147.testing.model.EmployeeBulkResult;
+import com.projects147.testing.model.EmployeeCriteria;
+import com.projects147.testing.model.EmployeeFields;
+import com.projects147.testing.model.EmployeeFingerprint;
+import com.projects147.testing.model.EmployeePage;
+import com.projects147.testing.model.EmployeePatch;
+import com.projects147.testing.model.EmployeeSuggestion;
+import com.projects147.testing.service.EmployeeGroupCommitter;
 import com.projects147.testing.service.EmployeeService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/employees")
@@ -21,27 +62,302 @@ import java.util.List;
 @Slf4j
 public class EmployeeController {
 
+    static final int BATCH_CHUNK_SIZE = 500;
+
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+//    JSON first, so that */* and a missing Accept header keep getting JSON
+    static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+            MediaType.parseMediaType(APPLICATION_SMILE_VALUE));
+
     private final EmployeeService employeeService;
 
+    private final ObjectMapper objectMapper;
+
+    private final EmployeeRepresentationCache employeeRepresentationCache;
+
+    private final HttpMessageConverters messageConverters;
+
+//    Only present when employees.group-commit.enabled is set
+    private final ObjectProvider<EmployeeGroupCommitter> groupCommitter;
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Employee save(@RequestBody Employee employee) {
         log.trace("In EmployeeController::save");
-        return employeeService.saveEmployee(employee);
+        EmployeeGroupCommitter committer = groupCommitter.getIfAvailable();
+        return committer != null ? committer.save(employee) : employeeService.saveEmployee(employee);
     }
 
-    @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public List<Employee> getAll() {
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public void saveAll(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                        InputStream body, HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
+        log.trace("In EmployeeController::saveAll");
+        ObjectMapper reader = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON) ? objectMapper : mapperFor(contentType);
+        MediaType format = negotiate(accept);
+        ObjectMapper mapper = mapperFor(format);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(format.toString());
+        ObjectWriter writer = mapper.writerFor(EmployeeBatchResult.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+//        A root-level array and a sequence of root-level values (e.g. NDJSON) both iterate element by element here
+        try (MappingIterator<Employee> employees = reader.readerFor(Employee.class).readValues(body);
+             JsonGenerator generator = mapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            List<Employee> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+            while (employees.hasNextValue()) {
+                chunk.add(employees.nextValue());
+                if (chunk.size() == BATCH_CHUNK_SIZE) {
+                    saveChunk(chunk).forEach(result -> write(writer, generator, result));
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty())
+                saveChunk(chunk).forEach(result -> write(writer, generator, result));
+            generator.writeEndArray();
+        }
+    }
+
+    @GetMapping(params = "!limit", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public void getAll(@RequestParam(value = "fields", required = false) String fields,
+                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                       ServletWebRequest request, HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
         log.trace("In EmployeeController::getAll");
-        return employeeService.getAllEmployees();
+        EmployeeFields projection = fields == null ? null : EmployeeFields.parse(fields);
+        MediaType format = negotiate(accept);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+//        Answer a matching If-None-Match from one aggregate query, before a single row is read or serialized
+        EmployeeFingerprint fingerprint = employeeService.getEmployeesFingerprint();
+        String etag = "list-" + fingerprint.count() + "-" + fingerprint.maxId() + "-" + fingerprint.versionSum();
+        if (request.checkNotModified(weak(etag(etag, projection, format))))
+            return;
+        ObjectMapper mapper = mapperFor(format);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(format.toString());
+//        Rows are written as they come off the database cursor, so the array is never held in memory
+        ObjectWriter writer = mapper.writerFor(projection == null ? Employee.class : Map.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            if (projection == null)
+                employeeService.streamAllEmployees(employee -> write(writer, generator, employee));
+            else
+                employeeService.streamAllEmployees(projection, row -> write(writer, generator, row));
+            generator.writeEndArray();
+        }
     }
 
-    @GetMapping("/{id}")
+//    For full dumps: plain JDBC rows written straight to the response, without entities, a persistence context or an ETag
+    @GetMapping("/export")
+    public void export(@RequestParam("format") String format, HttpServletResponse response) throws IOException {
+        log.trace("In EmployeeController::export");
+        EmployeeExportFormat exportFormat = EmployeeExportFormat.parse(format);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(exportFormat.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("employees." + exportFormat.extension()).build().toString());
+        try (EmployeeExportFormat.ExportWriter writer = exportFormat.open(response.getOutputStream(), objectMapper.getFactory())) {
+            employeeService.exportEmployees(writer);
+        }
+    }
+
+    @GetMapping(params = "limit", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<EmployeePage<?>> getPage(@RequestParam("limit") int limit,
+                                                   @RequestParam(value = "cursor", required = false) String cursor,
+                                                   @RequestParam(value = "fields", required = false) String fields,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws HttpMediaTypeNotAcceptableException {
+        log.trace("In EmployeeController::getPage");
+        if (fields != null)
+            return ResponseEntity.ok(employeeService.getEmployeePage(cursor, limit, EmployeeFields.parse(fields)));
+        EmployeePage<Employee> page = employeeService.getEmployeePage(cursor, limit);
+//        The page is identified by its rows' ids and versions, so a match skips serializing and sending it
+        StringBuilder rows = new StringBuilder(page.nextCursor() == null ? "" : page.nextCursor());
+        page.items().forEach(employee -> rows.append(';').append(employee.getId()).append('-').append(employee.getVersion()));
+        return ResponseEntity.ok()
+                .eTag(weak(etag("page-" + DigestUtils.md5DigestAsHex(rows.toString().getBytes(StandardCharsets.UTF_8)), null, negotiate(accept))))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(page);
+    }
+
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    public EmployeePage<?> search(@RequestParam(value = "firstName", required = false) String firstName,
+                                  @RequestParam(value = "lastName", required = false) String lastName,
+                                  @RequestParam(value = "prefix", defaultValue = "false") boolean prefix,
+                                  @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                  @RequestParam(value = "cursor", required = false) String cursor,
+                                  @RequestParam(value = "fields", required = false) String fields) {
+        log.trace("In EmployeeController::search");
+        if (fields != null)
+            return employeeService.searchEmployees(firstName, lastName, prefix, cursor, limit, EmployeeFields.parse(fields));
+        return employeeService.searchEmployees(firstName, lastName, prefix, cursor, limit);
+    }
+
+    @GetMapping("/autocomplete")
     @ResponseStatus(HttpStatus.OK)
-    public Employee getAll(@PathVariable("id") long id) {
+    public List<EmployeeSuggestion> autocomplete(@RequestParam("q") String query,
+                                                 @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        log.trace("In EmployeeController::autocomplete");
+        return employeeService.suggestEmployees(query, limit);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getAll(@PathVariable("id") long id,
+                                    @RequestParam(value = "fields", required = false) String fields,
+                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws HttpMediaTypeNotAcceptableException {
         log.trace("In EmployeeController::getAll");
-        return employeeService.getEmployeeById(id).get();
+        MediaType format = negotiate(accept);
+        if (fields == null && format.equals(MediaType.APPLICATION_JSON)) {
+            EmployeeRepresentationCache.Representation representation =
+                    employeeRepresentationCache.get(id, key -> employeeService.getEmployeeById(key).get());
+            return ResponseEntity.ok().eTag(representation.etag()).varyBy(HttpHeaders.ACCEPT)
+                    .contentType(MediaType.APPLICATION_JSON).body(representation.body());
+        }
+//        Single rows come from the entity cache, so narrowing them happens in memory rather than in SQL
+        EmployeeFields projection = fields == null ? null : EmployeeFields.parse(fields);
+        Employee employee = employeeService.getEmployeeById(id).get();
+        return ResponseEntity.ok().eTag(etag(id + "-" + employee.getVersion(), projection, format)).varyBy(HttpHeaders.ACCEPT)
+                .body(projection == null ? employee : projection.project(employee));
+    }
+
+    @PutMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public Employee update(@PathVariable("id") long id, @RequestBody Employee employee,
+                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.trace("In EmployeeController::update");
+        employee.setId(id);
+        employee.setVersion(expectedVersion(id, employee.getVersion(), ifMatch));
+        return employeeService.updateEmployee(employee);
+    }
+
+    @PatchMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void patch(@PathVariable("id") long id, @RequestBody EmployeePatch patch,
+                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.trace("In EmployeeController::patch");
+        employeeService.patchEmployee(id, patch.withVersion(expectedVersion(id, patch.version(), ifMatch)));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@PathVariable("id") long id, @RequestParam(value = "version", required = false) Long version,
+                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.trace("In EmployeeController::delete");
+        employeeService.deleteEmployee(id, expectedVersion(id, version, ifMatch));
+    }
+
+//    Criteria are combined with AND, and at least one is required, so a bare PATCH or DELETE cannot touch every employee
+    @PatchMapping
+    public EmployeeBulkResult patchAll(@RequestParam(value = "ids", required = false) List<Long> ids,
+                                       @RequestParam(value = "emailDomain", required = false) String emailDomain,
+                                       @RequestParam(value = "lastName", required = false) String lastName,
+                                       @RequestBody EmployeePatch patch) {
+        log.trace("In EmployeeController::patchAll");
+        return new EmployeeBulkResult(employeeService.patchEmployees(new EmployeeCriteria(ids, emailDomain, lastName), patch));
+    }
+
+    @DeleteMapping
+    public EmployeeBulkResult deleteAll(@RequestParam(value = "ids", required = false) List<Long> ids,
+                                        @RequestParam(value = "emailDomain", required = false) String emailDomain,
+                                        @RequestParam(value = "lastName", required = false) String lastName) {
+        log.trace("In EmployeeController::deleteAll");
+        return new EmployeeBulkResult(employeeService.deleteEmployees(new EmployeeCriteria(ids, emailDomain, lastName)));
+    }
+
+    private List<EmployeeBatchResult> saveChunk(List<Employee> chunk) {
+        try {
+            return employeeService.saveEmployees(chunk);
+        } catch (ResourceAlreadyPresentException e) {
+//            Another writer took one of the emails after the duplicate check; the retry will report it as DUPLICATE
+            log.debug("Retrying batch chunk after concurrent insert", e);
+            try {
+                return employeeService.saveEmployees(chunk);
+            } catch (ResourceAlreadyPresentException again) {
+//                Still colliding, so go row by row: only the colliding rows fail, and the response stays complete
+                log.debug("Saving batch chunk row by row after a second concurrent insert", again);
+                List<EmployeeBatchResult> results = new ArrayList<>(chunk.size());
+                for (Employee employee : chunk)
+                    results.add(saveOne(employee));
+                return results;
+            }
+        }
+    }
+
+    private EmployeeBatchResult saveOne(Employee employee) {
+        try {
+            return employeeService.saveEmployees(List.of(employee)).get(0);
+        } catch (ResourceAlreadyPresentException e) {
+            return EmployeeBatchResult.duplicate(employee.getEmail());
+        }
+    }
+
+//    The version a write must find, from the request or from an If-Match with one of our "id-version" ETags. With
+//    neither the write is unconditional, last writer wins; "*" asks for nothing beyond the employee existing.
+    static Long expectedVersion(long id, Long version, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*"))
+            return version;
+        String tag = ifMatch.strip();
+        if (tag.startsWith("W/"))
+            tag = tag.substring(2);
+        String prefix = "\"" + id + "-";
+        if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() <= prefix.length() + 1)
+            throw new PreconditionFailedException("If-Match does not name a version of employee " + id);
+        String value = tag.substring(prefix.length(), tag.length() - 1);
+//        The ";names" and ";cbor" suffixes of etag() tell representations of one version apart
+        int suffix = value.indexOf(';');
+        if (suffix >= 0)
+            value = value.substring(0, suffix);
+        long tagged;
+        try {
+            tagged = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not name a version of employee " + id);
+        }
+        if (version != null && version != tagged)
+            throw new PreconditionFailedException("If-Match and version disagree for employee " + id);
+        return tagged;
+    }
+
+//    Different field sets and formats are different representations, so they must not share an ETag
+    private static String etag(String value, EmployeeFields fields, MediaType format) {
+        return "\"" + value + (fields == null ? "" : ";" + String.join(",", fields.names()))
+                + (format.equals(MediaType.APPLICATION_JSON) ? "" : ";" + format.getSubtype()) + "\"";
+    }
+
+//    Tomcat only gzips responses without a strong ETag, and the gzipped bytes differ from the plain ones anyway.
+//    If-None-Match compares weakly, so 304s still work.
+    private static String weak(String etag) {
+        return "W/" + etag;
+    }
+
+//    The hand-written streaming endpoints pick their format here; everything else goes through the message converters
+    static MediaType negotiate(String accept) throws HttpMediaTypeNotAcceptableException {
+        if (accept == null || accept.isBlank())
+            return MediaType.APPLICATION_JSON;
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : accepted)
+            for (MediaType format : FORMATS)
+                if (mediaType.getQualityValue() > 0 && mediaType.includes(format))
+                    return format;
+        throw new HttpMediaTypeNotAcceptableException(FORMATS);
+    }
+
+//    The same mappers the message converters use, so streamed and converted responses encode identically
+    private ObjectMapper mapperFor(MediaType format) throws HttpMediaTypeNotAcceptableException {
+        for (HttpMessageConverter<?> converter : messageConverters.getConverters())
+            if (converter instanceof AbstractJackson2HttpMessageConverter jackson && jackson.canWrite(Employee.class, format))
+                return jackson.getObjectMapper();
+        throw new HttpMediaTypeNotAcceptableException(FORMATS);
+    }
+
+    private static void write(ObjectWriter writer, JsonGenerator generator, Object value) {
+        try {
+            writer.writeValue(generator, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
 }
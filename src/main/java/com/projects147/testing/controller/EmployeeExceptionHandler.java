@@ -0,0 +1,106 @@
+package com.projects147.testing.controller;
+
+import com.projects147.testing.exception.InvalidCriteriaException;
+import com.projects147.testing.exception.InvalidCursorException;
+import com.projects147.testing.exception.InvalidEmployeeException;
+import com.projects147.testing.exception.InvalidFieldsException;
+import com.projects147.testing.exception.InvalidSearchException;
+import com.projects147.testing.exception.PreconditionFailedException;
+import com.projects147.testing.exception.ResourceAlreadyPresentException;
+import com.projects147.testing.exception.ResourceConflictException;
+import com.projects147.testing.exception.ResourceNotFoundException;
+import com.projects147.testing.exception.UnsupportedExportFormatException;
+import com.projects147.testing.model.EmployeeError;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Expected outcomes are answered right here with a fixed body. Left to @ResponseStatus or the default resolvers they
+// would go through sendError and a second dispatch to /error, which costs more than the lookup that missed.
+@RestControllerAdvice
+@Slf4j
+public class EmployeeExceptionHandler {
+
+    private static final EmployeeError NOT_FOUND = new EmployeeError(HttpStatus.NOT_FOUND.value(), "Employee not found");
+
+    private static final EmployeeError ALREADY_PRESENT = new EmployeeError(HttpStatus.CONFLICT.value(), "Employee already exists");
+
+    private static final EmployeeError MODIFIED = new EmployeeError(HttpStatus.CONFLICT.value(), "Employee was modified");
+
+    private static final EmployeeError INVALID_EMPLOYEE = new EmployeeError(HttpStatus.BAD_REQUEST.value(), "Invalid employee");
+
+    private static final EmployeeError INVALID_CURSOR = new EmployeeError(HttpStatus.BAD_REQUEST.value(), "Invalid cursor");
+
+    private static final EmployeeError INVALID_FIELDS = new EmployeeError(HttpStatus.BAD_REQUEST.value(), "Invalid fields");
+
+    private static final EmployeeError INVALID_SEARCH = new EmployeeError(HttpStatus.BAD_REQUEST.value(), "firstName or lastName is required");
+
+    private static final EmployeeError INVALID_CRITERIA = new EmployeeError(HttpStatus.BAD_REQUEST.value(), "Invalid bulk criteria");
+
+    private static final EmployeeError UNSUPPORTED_FORMAT = new EmployeeError(HttpStatus.BAD_REQUEST.value(), "format must be csv or ndjson");
+
+    private static final EmployeeError PRECONDITION_FAILED = new EmployeeError(HttpStatus.PRECONDITION_FAILED.value(), "If-Match does not match the employee");
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<EmployeeError> notFound(ResourceNotFoundException e) {
+        log.debug(e.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(NOT_FOUND);
+    }
+
+    @ExceptionHandler(ResourceAlreadyPresentException.class)
+    public ResponseEntity<EmployeeError> alreadyPresent(ResourceAlreadyPresentException e) {
+        log.debug(e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ALREADY_PRESENT);
+    }
+
+    @ExceptionHandler(ResourceConflictException.class)
+    public ResponseEntity<EmployeeError> conflict(ResourceConflictException e) {
+        log.debug(e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(MODIFIED);
+    }
+
+    @ExceptionHandler(InvalidEmployeeException.class)
+    public ResponseEntity<EmployeeError> invalidEmployee(InvalidEmployeeException e) {
+        log.debug(e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(INVALID_EMPLOYEE);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<EmployeeError> invalidCursor(InvalidCursorException e) {
+        log.debug(e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(INVALID_CURSOR);
+    }
+
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<EmployeeError> invalidFields(InvalidFieldsException e) {
+        log.debug(e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(INVALID_FIELDS);
+    }
+
+    @ExceptionHandler(InvalidSearchException.class)
+    public ResponseEntity<EmployeeError> invalidSearch(InvalidSearchException e) {
+        log.debug(e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(INVALID_SEARCH);
+    }
+
+    @ExceptionHandler(InvalidCriteriaException.class)
+    public ResponseEntity<EmployeeError> invalidCriteria(InvalidCriteriaException e) {
+        log.debug(e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(INVALID_CRITERIA);
+    }
+
+    @ExceptionHandler(UnsupportedExportFormatException.class)
+    public ResponseEntity<EmployeeError> unsupportedFormat(UnsupportedExportFormatException e) {
+        log.debug(e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(UNSUPPORTED_FORMAT);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<EmployeeError> preconditionFailed(PreconditionFailedException e) {
+        log.debug(e.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(PRECONDITION_FAILED);
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.projects147.testing.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.projects147.testing.exception.UnsupportedExportFormatException;
+import com.projects147.testing.repository.EmployeeRowHandler;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+// Formats of GET /api/employees/export. Each row is written as it comes off the cursor into one reused buffer, so nothing
+// per row outlives the row.
+enum EmployeeExportFormat {
+
+    CSV("text/csv;charset=UTF-8") {
+        @Override
+        ExportWriter open(OutputStream out, JsonFactory jsonFactory) throws IOException {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write("id,firstName,lastName,email,version\r\n");
+            return new ExportWriter() {
+                @Override
+                public void row(long id, String firstName, String lastName, String email, long version) throws IOException {
+                    writer.write(Long.toString(id));
+                    writer.write(',');
+                    writeField(writer, firstName);
+                    writer.write(',');
+                    writeField(writer, lastName);
+                    writer.write(',');
+                    writeField(writer, email);
+                    writer.write(',');
+                    writer.write(Long.toString(version));
+                    writer.write("\r\n");
+                }
+
+                @Override
+                public void close() throws IOException {
+                    writer.close();
+                }
+            };
+        }
+    },
+
+    NDJSON("application/x-ndjson") {
+        @Override
+        ExportWriter open(OutputStream out, JsonFactory jsonFactory) throws IOException {
+//            The newline is the separator; without this Jackson would put a space before every object after the first
+            JsonGenerator generator = jsonFactory.createGenerator(out).setRootValueSeparator(null);
+            return new ExportWriter() {
+                @Override
+                public void row(long id, String firstName, String lastName, String email, long version) throws IOException {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", id);
+                    generator.writeStringField("firstName", firstName);
+                    generator.writeStringField("lastName", lastName);
+                    generator.writeStringField("email", email);
+                    generator.writeNumberField("version", version);
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+
+                @Override
+                public void close() throws IOException {
+                    generator.close();
+                }
+            };
+        }
+    };
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String contentType;
+
+    EmployeeExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    static EmployeeExportFormat parse(String format) {
+        for (EmployeeExportFormat candidate : values())
+            if (candidate.extension().equalsIgnoreCase(format))
+                return candidate;
+        throw new UnsupportedExportFormatException("format must be csv or ndjson");
+    }
+
+    String contentType() {
+        return contentType;
+    }
+
+    String extension() {
+        return name().toLowerCase();
+    }
+
+    abstract ExportWriter open(OutputStream out, JsonFactory jsonFactory) throws IOException;
+
+    interface ExportWriter extends EmployeeRowHandler, Closeable {
+    }
+
+//    RFC 4180: a field with a separator, quote or line break is quoted, and quotes inside it are doubled
+    private static void writeField(BufferedWriter writer, String value) throws IOException {
+        if (value == null)
+            return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.projects147.testing.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+// Carries read-your-writes stickiness across requests: a client that just wrote reads from the primary until the
+// replica has had time to catch up
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "employees-primary-until";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final long windowMillis;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Long until = primaryUntil(request, System.currentTimeMillis());
+        if (until != null)
+            ReplicaRoutingDataSource.stickToPrimaryUntil(until);
+//        Set up front because the body may be streamed and commit the response; the window therefore starts a little
+//        before the write commits, which is why it should exceed request latency plus replica lag
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis() + windowMillis));
+            cookie.setMaxAge((int) Math.ceil(windowMillis / 1000.0));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.clearStickiness();
+        }
+    }
+
+//    The cookie comes from the client, so it can only shorten the window: a forged far-future value would otherwise pin
+//    every read of that client to the primary. Malformed or expired values are ignored.
+    Long primaryUntil(HttpServletRequest request, long now) {
+        if (request.getCookies() == null)
+            return null;
+        for (Cookie cookie : request.getCookies()) {
+            if (cookie.getName().equals(COOKIE)) {
+                long until;
+                try {
+                    until = Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                return until > now ? Math.min(until, now + windowMillis) : null;
+            }
+        }
+        return null;
+    }
+
+}
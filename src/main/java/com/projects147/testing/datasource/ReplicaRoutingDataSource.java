@@ -0,0 +1,160 @@
+package com.projects147.testing.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Read-only transactions go to the replica, everything else to the primary. Must sit behind a LazyConnectionDataSourceProxy
+// so the route is chosen once the transaction's read-only flag is known.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+//    Wall-clock deadline until which this thread reads from the primary, so it can travel in a cookie between requests
+    private static final ThreadLocal<Long> PRIMARY_UNTIL = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final DataSource replica;
+
+    private final boolean fallbackToPrimary;
+
+    private final long retryIntervalNanos;
+
+    private final long readYourWritesWindowMillis;
+
+    private final LongAdder primaryConnections = new LongAdder();
+
+    private final LongAdder replicaConnections = new LongAdder();
+
+    private final LongAdder fallbacks = new LongAdder();
+
+    private volatile long replicaDownUntil;
+
+    private volatile boolean replicaDown;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, boolean fallbackToPrimary, Duration retryInterval,
+                                    Duration readYourWritesWindow) {
+        this.primary = primary;
+        this.replica = replica;
+        this.fallbackToPrimary = fallbackToPrimary;
+        this.retryIntervalNanos = retryInterval.toNanos();
+        this.readYourWritesWindowMillis = readYourWritesWindow.toMillis();
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public static void stickToPrimaryUntil(long epochMillis) {
+        PRIMARY_UNTIL.set(epochMillis);
+    }
+
+    public static void clearStickiness() {
+        PRIMARY_UNTIL.remove();
+    }
+
+//    For reads that must see the latest committed state regardless of replica lag
+    public static <T> T onPrimary(Supplier<T> work) {
+        Long previous = PRIMARY_UNTIL.get();
+        PRIMARY_UNTIL.set(Long.MAX_VALUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null)
+                PRIMARY_UNTIL.remove();
+            else
+                PRIMARY_UNTIL.set(previous);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            stickAfterCommit();
+            return Route.PRIMARY;
+        }
+        if (isSticky() || (replicaDown && System.nanoTime() - replicaDownUntil < 0))
+            return Route.PRIMARY;
+        return Route.REPLICA;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employees.datasource.connections", primaryConnections, LongAdder::sum)
+                .tag("route", "primary").register(registry);
+        FunctionCounter.builder("employees.datasource.connections", replicaConnections, LongAdder::sum)
+                .tag("route", "replica").register(registry);
+        FunctionCounter.builder("employees.datasource.replica.fallbacks", fallbacks, LongAdder::sum).register(registry);
+    }
+
+    private Connection connect(ConnectionSource source) throws SQLException {
+        if (determineCurrentLookupKey() == Route.PRIMARY) {
+            primaryConnections.increment();
+            return source.connect(primary);
+        }
+        try {
+            Connection connection = source.connect(replica);
+            replicaDown = false;
+            replicaConnections.increment();
+            return connection;
+        } catch (SQLException e) {
+            if (!fallbackToPrimary)
+                throw e;
+//            Stop trying the replica for a while, so an outage does not add a connection timeout to every read
+            replicaDownUntil = System.nanoTime() + retryIntervalNanos;
+            replicaDown = true;
+            fallbacks.increment();
+            log.warn("Replica unavailable, reading from the primary for the next {} ms", retryIntervalNanos / 1_000_000, e);
+            primaryConnections.increment();
+            return source.connect(primary);
+        }
+    }
+
+//    Replicas apply the primary's commits a little later, so this thread keeps reading from the primary for a short while
+    private void stickAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stickToPrimaryUntil(System.currentTimeMillis() + readYourWritesWindowMillis);
+            }
+        });
+    }
+
+    private static boolean isSticky() {
+        Long until = PRIMARY_UNTIL.get();
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.projects147.testing.datasource;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Counts the SQL each request runs on its own thread and records it per endpoint. Work handed to other threads (async
+// endpoints, group commit) is not attributed to the request.
+@Slf4j
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Sql-Statements";
+
+    private final MeterRegistry registry;
+
+    private final boolean header;
+
+    private final int repeatThreshold;
+
+    public SqlAccountingFilter(MeterRegistry registry, boolean header, int repeatThreshold) {
+        this.registry = registry;
+        this.header = header;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (SqlStatementCounts counts = SqlStatementCounts.open()) {
+            HeaderWritingResponse headerWritingResponse = header ? new HeaderWritingResponse(response, counts) : null;
+            try {
+                filterChain.doFilter(request, headerWritingResponse == null ? response : headerWritingResponse);
+            } finally {
+                if (headerWritingResponse != null)
+                    headerWritingResponse.writeHeader();
+                record(request, counts);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementCounts counts) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern == null ? "UNKNOWN" : pattern.toString());
+        DistributionSummary.builder("employees.sql.statements").baseUnit("statements").tags(tags).register(registry)
+                .record(counts.statements());
+        DistributionSummary.builder("employees.sql.rows").baseUnit("rows").tags(tags).register(registry).record(counts.rows());
+        Timer.builder("employees.sql.time").tags(tags).register(registry).record(counts.jdbcNanos(), TimeUnit.NANOSECONDS);
+        Map<String, Integer> repeated = counts.repeated(repeatThreshold);
+        if (repeated.isEmpty())
+            return;
+        registry.counter("employees.sql.repeated", tags).increment();
+        repeated.forEach((sql, times) -> log.warn("{} {} ran the same statement {} times: {}",
+                request.getMethod(), request.getRequestURI(), times, sql));
+    }
+
+    static String describe(SqlStatementCounts counts) {
+        return "statements=" + counts.statements() + "; rows=" + counts.rows()
+                + "; time-us=" + TimeUnit.NANOSECONDS.toMicros(counts.jdbcNanos());
+    }
+
+//    Headers must be set before the body commits the response, which for most endpoints happens inside the chain. By then
+//    the handler has normally done its queries; a streaming endpoint reports those run before it began writing.
+    private static class HeaderWritingResponse extends HttpServletResponseWrapper {
+
+        private final SqlStatementCounts counts;
+
+        private boolean written;
+
+        HeaderWritingResponse(HttpServletResponse response, SqlStatementCounts counts) {
+            super(response);
+            this.counts = counts;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+
+        void writeHeader() {
+            if (written || isCommitted())
+                return;
+            written = true;
+            setHeader(HEADER, describe(counts));
+        }
+    }
+
+}
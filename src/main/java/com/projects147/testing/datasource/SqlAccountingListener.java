@@ -0,0 +1,62 @@
+package com.projects147.testing.datasource;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+// Feeds every statement run through the proxied data source into the counts open on the calling thread. The time is
+// the execute call itself; fetching further rows of a cursor is not included.
+public class SqlAccountingListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final String STARTED = "sql-accounting-started";
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (SqlStatementCounts.isOpen())
+            execInfo.addCustomValue(STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long started = execInfo.getCustomValue(STARTED, Long.class);
+        if (started == null)
+            return;
+        long nanos = System.nanoTime() - started;
+        long rows = updatedRows(execInfo.getResult());
+//        A batch is one round trip however many parameter sets it carries
+        for (int i = 0; i < queryInfoList.size(); i++)
+            SqlStatementCounts.recordStatement(queryInfoList.get(i).getQuery(), i == 0 ? rows : 0, i == 0 ? nanos : 0);
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet && executionContext.getMethod().getName().equals("next")
+                && Boolean.TRUE.equals(executionContext.getResult()))
+            SqlStatementCounts.recordRow();
+    }
+
+    private static long updatedRows(Object result) {
+        if (result instanceof Integer count)
+            return Math.max(count, 0);
+        if (result instanceof Long count)
+            return Math.max(count, 0);
+        long rows = 0;
+        if (result instanceof int[] counts)
+            for (int count : counts)
+                rows += Math.max(count, 0);
+        if (result instanceof long[] counts)
+            for (long count : counts)
+                rows += Math.max(count, 0);
+        return rows;
+    }
+
+}
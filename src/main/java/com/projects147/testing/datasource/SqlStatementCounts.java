@@ -0,0 +1,86 @@
+package com.projects147.testing.datasource;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Statements, rows and JDBC time seen on the current thread between open() and close(). Scopes nest and a statement
+// counts in every open one, so a test can measure a request while the request filter is measuring it too.
+public final class SqlStatementCounts implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatementCounts> CURRENT = new ThreadLocal<>();
+
+    private final SqlStatementCounts parent;
+
+//    Executions per distinct SQL string, in first-run order; an N+1 shows up as one string with a high count
+    private final Map<String, Integer> executions = new LinkedHashMap<>();
+
+    private int statements;
+
+    private long rows;
+
+    private long nanos;
+
+    private SqlStatementCounts(SqlStatementCounts parent) {
+        this.parent = parent;
+    }
+
+    public static SqlStatementCounts open() {
+        SqlStatementCounts counts = new SqlStatementCounts(CURRENT.get());
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    static boolean isOpen() {
+        return CURRENT.get() != null;
+    }
+
+    static void recordStatement(String sql, long rows, long nanos) {
+        for (SqlStatementCounts counts = CURRENT.get(); counts != null; counts = counts.parent) {
+            counts.statements++;
+            counts.rows += rows;
+            counts.nanos += nanos;
+            counts.executions.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    static void recordRow() {
+        for (SqlStatementCounts counts = CURRENT.get(); counts != null; counts = counts.parent)
+            counts.rows++;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+//    Rows read through result sets plus rows reported changed by updates
+    public long rows() {
+        return rows;
+    }
+
+    public long jdbcNanos() {
+        return nanos;
+    }
+
+    public Map<String, Integer> executions() {
+        return Collections.unmodifiableMap(executions);
+    }
+
+    public Map<String, Integer> repeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executions.forEach((sql, count) -> {
+            if (count >= threshold)
+                repeated.put(sql, count);
+        });
+        return repeated;
+    }
+
+    @Override
+    public void close() {
+        if (parent == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(parent);
+    }
+
+}
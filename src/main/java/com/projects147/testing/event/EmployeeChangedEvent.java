@@ -0,0 +1,24 @@
+package com.projects147.testing.event;
+
+import com.projects147.testing.model.Employee;
+
+// remote: the change was made by another node and replayed here from the outbox
+public record EmployeeChangedEvent(Type type, long id, Employee employee, boolean remote) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static EmployeeChangedEvent created(Employee employee) {
+        return new EmployeeChangedEvent(Type.CREATED, employee.getId(), employee, false);
+    }
+
+    public static EmployeeChangedEvent updated(Employee employee) {
+        return new EmployeeChangedEvent(Type.UPDATED, employee.getId(), employee, false);
+    }
+
+    public static EmployeeChangedEvent deleted(long id) {
+        return new EmployeeChangedEvent(Type.DELETED, id, null, false);
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.projects147.testing.event;
+
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeOutboxEvent;
+import com.projects147.testing.repository.EmployeeJdbcRepository;
+import com.projects147.testing.repository.EmployeeOutboxRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Every change is written to the employee_outbox table in the transaction that makes it. Each node polls the table and
+// replays the changes other nodes made as local events, so caches and indexes everywhere follow every write.
+@Component
+@ConditionalOnProperty(name = "employees.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class EmployeeOutbox implements MeterBinder {
+
+//    Beyond this many missing ids in one jump (e.g. auto-increment restarting higher) we stop waiting for them
+    private static final int MAX_GAPS = 1000;
+
+    private static final long PRUNE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final EmployeeOutboxRepository outboxRepository;
+
+    private final EmployeeJdbcRepository employeeJdbcRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EmployeeOutboxProperties properties;
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("employee-outbox-"));
+
+    private final LongAdder replayed = new LongAdder();
+
+//    Ids the cursor has passed without seeing a row, mapped to when that was noticed. IDENTITY ids are taken at insert
+//    but become visible at commit, so a lower id can show up after a higher one; a rolled-back insert never shows up.
+    private final Map<Long, Long> gaps = new ConcurrentHashMap<>();
+
+    private long cursor;
+
+    private long lastPruned;
+
+    public EmployeeOutbox(EmployeeOutboxRepository outboxRepository, EmployeeJdbcRepository employeeJdbcRepository,
+                          ApplicationEventPublisher eventPublisher, EmployeeOutboxProperties properties) {
+        this.outboxRepository = outboxRepository;
+        this.employeeJdbcRepository = employeeJdbcRepository;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+    }
+
+//    Before ApplicationReadyEvent, so changes made while the caches and indexes are built are replayed afterwards
+    @EventListener(ContextRefreshedEvent.class)
+    public void start() {
+        cursor = outboxRepository.findMaxId();
+        long interval = properties.pollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::pollQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Polling the employee outbox every {} ms from id {} as node {}", interval, cursor, nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.remote())
+            return;
+        EmployeeOutboxEvent entry = toOutboxEvent(event);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            employeeJdbcRepository.insertOutboxEvents(List.of(entry));
+            return;
+        }
+        pendingInTransaction().add(entry);
+    }
+
+    synchronized void poll() {
+        if (!gaps.isEmpty())
+            outboxRepository.findByIdInOrderByIdAsc(gaps.keySet()).forEach(event -> {
+                gaps.remove(event.getId());
+                replay(event);
+            });
+        List<EmployeeOutboxEvent> events;
+        do {
+            events = outboxRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(properties.batchSize()));
+            for (EmployeeOutboxEvent event : events) {
+                long now = System.nanoTime();
+                if (event.getId() - cursor - 1 <= MAX_GAPS)
+                    for (long id = cursor + 1; id < event.getId(); id++)
+                        gaps.put(id, now);
+                cursor = event.getId();
+                replay(event);
+            }
+        } while (events.size() == properties.batchSize());
+        long now = System.nanoTime();
+        gaps.values().removeIf(noticed -> now - noticed > properties.gapTimeout().toNanos());
+        prune();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employees.outbox.replayed", replayed, LongAdder::sum).register(registry);
+        Gauge.builder("employees.outbox.gaps", gaps, Map::size).register(registry);
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Polling the employee outbox failed", e);
+        }
+    }
+
+    private void replay(EmployeeOutboxEvent event) {
+        if (event.getNodeId().equals(nodeId))
+            return;
+        replayed.increment();
+        eventPublisher.publishEvent(toChangedEvent(event));
+    }
+
+//    Every node deletes expired rows; the statements are idempotent, so there is nothing to coordinate
+    private void prune() {
+        long now = System.currentTimeMillis();
+        if (now - lastPruned < PRUNE_INTERVAL_MILLIS)
+            return;
+        lastPruned = now;
+        int deleted = outboxRepository.deleteCreatedBefore(now - properties.retention().toMillis());
+        if (deleted > 0)
+            log.debug("Pruned {} employee outbox rows", deleted);
+    }
+
+//    Collected per transaction and written in one batch just before it commits
+    @SuppressWarnings("unchecked")
+    private List<EmployeeOutboxEvent> pendingInTransaction() {
+        List<EmployeeOutboxEvent> pending = (List<EmployeeOutboxEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null)
+            return pending;
+        List<EmployeeOutboxEvent> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                employeeJdbcRepository.insertOutboxEvents(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(EmployeeOutbox.this);
+            }
+        });
+        return created;
+    }
+
+    private EmployeeOutboxEvent toOutboxEvent(EmployeeChangedEvent event) {
+        Employee employee = event.employee();
+        return EmployeeOutboxEvent.builder().nodeId(nodeId).type(event.type()).employeeId(event.id())
+                .firstName(employee == null ? null : employee.getFirstName())
+                .lastName(employee == null ? null : employee.getLastName())
+                .email(employee == null ? null : employee.getEmail())
+                .version(employee == null ? null : employee.getVersion())
+                .createdAt(System.currentTimeMillis())
+                .build();
+    }
+
+    private static EmployeeChangedEvent toChangedEvent(EmployeeOutboxEvent event) {
+        Employee employee = event.getType() == EmployeeChangedEvent.Type.DELETED ? null : Employee.builder()
+                .id(event.getEmployeeId()).firstName(event.getFirstName()).lastName(event.getLastName())
+                .email(event.getEmail()).version(event.getVersion()).build();
+        return new EmployeeChangedEvent(event.getType(), event.getEmployeeId(), employee, true);
+    }
+
+}
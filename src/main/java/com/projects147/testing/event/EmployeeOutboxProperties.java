@@ -0,0 +1,13 @@
+package com.projects147.testing.event;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("employees.outbox")
+public record EmployeeOutboxProperties(@DefaultValue("1s") Duration pollInterval,
+                                       @DefaultValue("500") int batchSize,
+                                       @DefaultValue("30s") Duration gapTimeout,
+                                       @DefaultValue("1h") Duration retention) {
+}
@@ -0,0 +1,28 @@
+package com.projects147.testing.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// 429 when a client is over its rate, 503 when the service is over capacity; either way the client is told when to retry
+public class AdmissionRejectedException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(HttpStatus status, String reason, long retryAfterSeconds) {
+        super(status, reason);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return headers;
+    }
+
+}
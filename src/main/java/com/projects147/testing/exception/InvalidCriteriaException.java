@@ -0,0 +1,9 @@
+package com.projects147.testing.exception;
+
+public class InvalidCriteriaException extends StacklessException {
+
+    public InvalidCriteriaException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.projects147.testing.exception;
+
+public class InvalidCursorException extends StacklessException {
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.projects147.testing.exception;
+
+public class InvalidEmployeeException extends StacklessException {
+
+    public InvalidEmployeeException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.projects147.testing.exception;
+
+public class InvalidFieldsException extends StacklessException {
+
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+
+}
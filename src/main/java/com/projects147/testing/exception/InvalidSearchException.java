@@ -0,0 +1,9 @@
+package com.projects147.testing.exception;
+
+public class InvalidSearchException extends StacklessException {
+
+    public InvalidSearchException(String message) {
+        super(message);
+    }
+
+}
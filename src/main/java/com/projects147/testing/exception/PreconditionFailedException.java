@@ -0,0 +1,9 @@
+package com.projects147.testing.exception;
+
+public class PreconditionFailedException extends StacklessException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+}
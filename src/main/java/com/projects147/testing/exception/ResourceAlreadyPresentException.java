@@ -1,6 +1,6 @@
 package com.projects147.testing.exception;
 
-public class ResourceAlreadyPresentException extends RuntimeException {
+public class ResourceAlreadyPresentException extends StacklessException {
 
     public ResourceAlreadyPresentException(String message) {
         super(message);
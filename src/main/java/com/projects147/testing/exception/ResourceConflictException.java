@@ -0,0 +1,9 @@
+package com.projects147.testing.exception;
+
+public class ResourceConflictException extends StacklessException {
+
+    public ResourceConflictException(String message) {
+        super(message);
+    }
+
+}
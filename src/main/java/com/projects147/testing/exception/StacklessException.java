@@ -0,0 +1,16 @@
+package com.projects147.testing.exception;
+
+// Base for outcomes callers are expected to hit (a miss, a duplicate, a stale version, a malformed
+// request). They are thrown as control flow
+// and mapped to a status, so nobody reads their stack trace, and filling one in is most of the cost of throwing.
+public abstract class StacklessException extends RuntimeException {
+
+    protected StacklessException(String message) {
+        super(message, null, false, false);
+    }
+
+    protected StacklessException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.projects147.testing.exception;
+
+public class UnsupportedExportFormatException extends StacklessException {
+
+    public UnsupportedExportFormatException(String message) {
+        super(message);
+    }
+
+}
@@ -2,6 +2,8 @@ package com.projects147.testing.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter
 @Setter
@@ -9,9 +11,20 @@ import lombok.*;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "employees")
+@Table(name = "employees",
+        uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_CONSTRAINT, columnNames = "email"),
+        indexes = {
+//                Exact and prefix name searches. InnoDB appends the id, so only when both names match exactly are the rows
+//                already in id order for keyset paging; see EmployeeRepository.searchByName
+                @Index(name = "idx_employees_last_first", columnList = "last_name, first_name"),
+                @Index(name = "idx_employees_first_last", columnList = "first_name, last_name")})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Employee.CACHE_REGION)
 public class Employee {
 
+    public static final String EMAIL_CONSTRAINT = "uk_employees_email";
+
+    public static final String CACHE_REGION = "employee";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -24,4 +37,8 @@ public class Employee {
 
     private String email;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
 }
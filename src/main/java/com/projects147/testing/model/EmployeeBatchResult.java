@@ -0,0 +1,24 @@
+package com.projects147.testing.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EmployeeBatchResult(Status status, Long id, String message) {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID
+    }
+
+    public static EmployeeBatchResult created(long id) {
+        return new EmployeeBatchResult(Status.CREATED, id, null);
+    }
+
+    public static EmployeeBatchResult duplicate(String email) {
+        return new EmployeeBatchResult(Status.DUPLICATE, null, "Employee already exists with email: " + email);
+    }
+
+    public static EmployeeBatchResult invalid(String message) {
+        return new EmployeeBatchResult(Status.INVALID, null, message);
+    }
+
+}
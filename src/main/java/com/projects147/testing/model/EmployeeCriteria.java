@@ -0,0 +1,16 @@
+package com.projects147.testing.model;
+
+import java.util.List;
+
+// Selects employees for bulk changes; every criterion given must match, and a null one does not constrain
+public record EmployeeCriteria(List<Long> ids, String emailDomain, String lastName) {
+
+    public boolean isEmpty() {
+        return (ids == null || ids.isEmpty()) && isBlank(emailDomain) && isBlank(lastName);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.projects147.testing.model;
+
+import com.projects147.testing.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class EmployeeCursor {
+
+    private EmployeeCursor() {
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty())
+            return 0L;
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+}
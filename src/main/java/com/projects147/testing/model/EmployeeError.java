@@ -0,0 +1,4 @@
+package com.projects147.testing.model;
+
+public record EmployeeError(int status, String error) {
+}
@@ -0,0 +1,54 @@
+package com.projects147.testing.model;
+
+import com.projects147.testing.exception.InvalidFieldsException;
+import jakarta.persistence.Tuple;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// The attributes a caller asked for with ?fields=, in request order; names match the Employee properties and JSON keys
+public record EmployeeFields(List<String> names) {
+
+    public static final List<String> ALL = List.of("id", "firstName", "lastName", "email", "version");
+
+    public static EmployeeFields parse(String fields) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.strip();
+            if (trimmed.isEmpty())
+                continue;
+            if (!ALL.contains(trimmed))
+                throw new InvalidFieldsException("Unknown field: " + trimmed + ", expected any of " + ALL);
+            names.add(trimmed);
+        }
+        if (names.isEmpty())
+            throw new InvalidFieldsException("At least one field is required, expected any of " + ALL);
+        return new EmployeeFields(List.copyOf(names));
+    }
+
+    public Map<String, Object> project(Employee employee) {
+        Map<String, Object> row = new LinkedHashMap<>(names.size() * 2);
+        for (String name : names)
+            row.put(name, switch (name) {
+                case "id" -> employee.getId();
+                case "firstName" -> employee.getFirstName();
+                case "lastName" -> employee.getLastName();
+                case "email" -> employee.getEmail();
+                case "version" -> employee.getVersion();
+                default -> throw new IllegalStateException("Unknown field: " + name);
+            });
+        return row;
+    }
+
+//    Tuple elements are aliased with the field name
+    public Map<String, Object> project(Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>(names.size() * 2);
+        for (String name : names)
+            row.put(name, tuple.get(name));
+        return row;
+    }
+
+}
@@ -0,0 +1,5 @@
+package com.projects147.testing.model;
+
+// Changes whenever a row is inserted (max id grows), deleted (count drops) or updated (a version grows)
+public record EmployeeFingerprint(long count, long maxId, long versionSum) {
+}
@@ -0,0 +1,49 @@
+package com.projects147.testing.model;
+
+import com.projects147.testing.event.EmployeeChangedEvent;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_outbox")
+public class EmployeeOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", nullable = false)
+    private String nodeId;
+
+//    A plain varchar rather than MySQL's native enum, so a new type needs no migration and the schema is the same on H2
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false)
+    private EmployeeChangedEvent.Type type;
+
+    @Column(name = "employee_id", nullable = false)
+    private long employeeId;
+
+//    The employee as the change left it, null on deletes and only the patched fields on patches
+    @Column(name = "first_name")
+    private String firstName;
+
+    @Column(name = "last_name")
+    private String lastName;
+
+    private String email;
+
+    private Long version;
+
+//    Epoch millis, written as-is by the JDBC batch insert so no time zone conversion can get in the way of pruning
+    @Column(name = "created_at", nullable = false)
+    private long createdAt;
+
+}
@@ -0,0 +1,6 @@
+package com.projects147.testing.model;
+
+import java.util.List;
+
+public record EmployeePage<T>(List<T> items, String nextCursor) {
+}
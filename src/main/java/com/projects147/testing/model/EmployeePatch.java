@@ -0,0 +1,9 @@
+package com.projects147.testing.model;
+
+public record EmployeePatch(String firstName, String lastName, String email, Long version) {
+
+    public EmployeePatch withVersion(Long version) {
+        return new EmployeePatch(firstName, lastName, email, version);
+    }
+
+}
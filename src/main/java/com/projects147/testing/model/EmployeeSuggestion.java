@@ -0,0 +1,4 @@
+package com.projects147.testing.model;
+
+public record EmployeeSuggestion(long id, String firstName, String lastName) {
+}
@@ -0,0 +1,94 @@
+package com.projects147.testing.repository;
+
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeOutboxEvent;
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+@Repository
+@AllArgsConstructor
+@Timed("employees.jdbc")
+public class EmployeeJdbcRepository {
+
+    private static final String INSERT_SQL = "insert into employees (first_name, last_name, email, version) values (?, ?, ?, 0)";
+
+    private static final String EXPORT_SQL = "select id, first_name, last_name, email, version from employees order by id";
+
+//    Large enough to amortize round trips, small enough that a fetch never holds more than a few hundred KB
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private static final String INSERT_OUTBOX_SQL = "insert into employee_outbox " +
+            "(node_id, type, employee_id, first_name, last_name, email, version, created_at) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+//    Hibernate cannot batch inserts for IDENTITY ids, so batches go through plain JDBC and the generated keys are copied back
+    public void insertAll(List<Employee> employees) {
+        if (employees.isEmpty())
+            return;
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Employee employee : employees) {
+                    statement.setString(1, employee.getFirstName());
+                    statement.setString(2, employee.getLastName());
+                    statement.setString(3, employee.getEmail());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (int i = 0; keys.next(); i++) {
+                        employees.get(i).setId(keys.getLong(1));
+                        employees.get(i).setVersion(0L);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+//    A forward-only, read-only cursor handed over row by row; with useCursorFetch MySQL sends EXPORT_FETCH_SIZE rows at a
+//    time instead of the whole result, so memory stays flat however large the table is
+    public void exportAll(EmployeeRowHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            return statement;
+        }, (ResultSet row) -> {
+            try {
+                handler.row(row.getLong(1), row.getString(2), row.getString(3), row.getString(4), row.getLong(5));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public void insertOutboxEvents(List<EmployeeOutboxEvent> events) {
+        if (events.isEmpty())
+            return;
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.getNodeId());
+            statement.setString(2, event.getType().name());
+            statement.setLong(3, event.getEmployeeId());
+            statement.setString(4, event.getFirstName());
+            statement.setString(5, event.getLastName());
+            statement.setString(6, event.getEmail());
+            if (event.getVersion() == null)
+                statement.setNull(7, Types.BIGINT);
+            else
+                statement.setLong(7, event.getVersion());
+            statement.setLong(8, event.getCreatedAt());
+        });
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.projects147.testing.repository;
+
+import com.projects147.testing.model.EmployeeOutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+// Rows are written by EmployeeJdbcRepository.insertOutboxEvents, batched in the transaction of the change itself
+@Transactional(readOnly = true)
+public interface EmployeeOutboxRepository extends JpaRepository<EmployeeOutboxEvent, Long> {
+
+    List<EmployeeOutboxEvent> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    List<EmployeeOutboxEvent> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Query("select coalesce(max(e.id), 0) from EmployeeOutboxEvent e")
+    long findMaxId();
+
+    @Transactional
+    @Modifying
+    @Query("delete from EmployeeOutboxEvent e where e.createdAt < :createdAt")
+    int deleteCreatedBefore(@Param("createdAt") long createdAt);
+
+}
@@ -0,0 +1,91 @@
+package com.projects147.testing.repository;
+
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeFields;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+// Tuple queries that select only the requested columns; the rows never become managed entities, so there is nothing to
+// snapshot or dirty check
+@Repository
+@AllArgsConstructor
+public class EmployeeProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    public List<Tuple> findByIdGreaterThan(EmployeeFields fields, long id, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        query.multiselect(selections(fields, employee))
+                .where(cb.gt(employee.get("id"), id))
+                .orderBy(cb.asc(employee.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+//    Same patterns as EmployeeRepository.searchByName
+    public List<Tuple> searchByName(EmployeeFields fields, String firstName, String lastName, long id, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        Predicate lastNameMatches = cb.like(employee.get("lastName"), lastName, '!');
+        Predicate firstNameMatches = cb.like(employee.get("firstName"), firstName, '!');
+        query.multiselect(selections(fields, employee))
+                .where(lastNameMatches, firstNameMatches, cb.gt(employee.get("id"), id))
+                .orderBy(cb.asc(employee.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    public Stream<Tuple> streamAll(EmployeeFields fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        query.multiselect(selections(fields, employee)).orderBy(cb.asc(employee.get("id")));
+        return entityManager.createQuery(query).setHint(HINT_FETCH_SIZE, 500).getResultStream();
+    }
+
+//    Locks the next chunk of matching rows after the given id, so the statement that follows in the same transaction
+//    changes exactly the rows reported here. Null arguments do not constrain; emailPattern is escaped with '!'.
+    public List<Long> lockIds(Collection<Long> ids, String emailPattern, String lastName, Long id, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Employee> employee = query.from(Employee.class);
+        List<Predicate> predicates = new ArrayList<>();
+        if (id != null)
+            predicates.add(cb.gt(employee.get("id"), id));
+        if (ids != null)
+            predicates.add(employee.get("id").in(ids));
+        if (emailPattern != null)
+            predicates.add(cb.like(employee.get("email"), emailPattern, '!'));
+        if (lastName != null)
+            predicates.add(cb.equal(employee.get("lastName"), lastName));
+        query.select(employee.get("id")).where(predicates.toArray(Predicate[]::new)).orderBy(cb.asc(employee.get("id")));
+        return entityManager.createQuery(query).setLockMode(LockModeType.PESSIMISTIC_WRITE).setMaxResults(limit).getResultList();
+    }
+
+//    The id is always selected, aliased "id", because keyset paging needs it even when the caller did not ask for it
+    private static List<Selection<?>> selections(EmployeeFields fields, Root<Employee> employee) {
+        List<Selection<?>> selections = new ArrayList<>(fields.names().size() + 1);
+        selections.add(employee.get("id").alias("id"));
+        for (String name : fields.names())
+            if (!name.equals("id"))
+                selections.add(employee.get(name).alias(name));
+        return selections;
+    }
+
+}
@@ -1,17 +1,121 @@
 package com.projects147.testing.repository;
 
 import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeFingerprint;
+import com.projects147.testing.model.EmployeeSuggestion;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+// Spring Data gives declared queries no transaction of their own, so they run read-only here, which is also what lets the
+// replica routing serve them; the modifying queries below override this with their own @Transactional
+@Transactional(readOnly = true)
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
+    String BY_EMAIL_REGION = "employee-by-email";
+
+    String BY_NAME_REGION = "employee-by-name";
+
+    String ROW_WRITE_SPACE = "employees_row_write";
+
+//    Query cache entries hold ids only; the rows themselves come from the employee entity region
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = BY_EMAIL_REGION)})
     Optional<Employee> findByEmail(String email);
 
+//    A native query has to name the tables it reads, or changes to them would not invalidate its cached results
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = BY_NAME_REGION),
+            @QueryHint(name = HINT_NATIVE_SPACES, value = "employees")})
     @Query(value = "select * from employees e where e.first_name=:firstName and e.last_name=:lastName", nativeQuery = true)
-    Employee findByEmployeeFirstNameAndLastName(@Param("firstName") String firstName, @Param("lastName") String lastName);
+    List<Employee> findByEmployeeFirstNameAndLastName(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+//    Patterns are LIKE patterns escaped with '!'; pass "%" for a name that should not constrain the search.
+//    Paged by id: with both names exact, the name index yields the matches in id order and the limit stops the read early;
+//    a prefix or single-name search has to sort every match by id first, so its cost grows with the number of matches.
+    @Query("select e from Employee e where e.lastName like :lastName escape '!' and e.firstName like :firstName escape '!' " +
+            "and e.id > :id order by e.id")
+    List<Employee> searchByName(@Param("firstName") String firstName, @Param("lastName") String lastName,
+                                @Param("id") long id, Limit limit);
+
+    @Query("select new com.projects147.testing.model.EmployeeSuggestion(e.id, e.firstName, e.lastName) from Employee e " +
+            "where e.lastName like :prefix escape '!' or e.firstName like :prefix escape '!' order by e.lastName, e.firstName, e.id")
+    List<EmployeeSuggestion> findSuggestions(@Param("prefix") String prefix, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.projects147.testing.model.EmployeeSuggestion(e.id, e.firstName, e.lastName) from Employee e")
+    Stream<EmployeeSuggestion> streamAllSuggestions();
+
+    @Query("select e.email from Employee e where e.email in :emails")
+    Set<String> findEmailsByEmailIn(@Param("emails") Collection<String> emails);
+
+    List<Employee> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<Employee> streamAllByOrderByIdAsc();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select e.email from Employee e where e.email is not null")
+    Stream<String> streamAllEmails();
+
+//    Not free: sum(version), like count on InnoDB, reads every row, so this is a full scan. It returns one row, though,
+//    where the list it guards reads, maps and serializes them all (EmployeeRepositoryBenchmark.fingerprint vs findAll).
+    @Query("select new com.projects147.testing.model.EmployeeFingerprint(count(e), coalesce(max(e.id), 0), coalesce(sum(e.version), 0)) " +
+            "from Employee e")
+    EmployeeFingerprint fingerprint();
+
+//    Single-row writes are native and synchronized on a query space nothing reads from. A JPQL update or delete would make
+//    Hibernate drop the whole employee region and every cached query on employees; EmployeeHibernateCache evicts just this
+//    row, and the cached query results, once it commits.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ROW_WRITE_SPACE))
+    @Query(value = "update employees set first_name = :firstName, last_name = :lastName, email = :email, version = version + 1 " +
+            "where id = :id and version = coalesce(:version, version)", nativeQuery = true)
+    int updateIfVersionMatches(@Param("id") long id, @Param("version") Long version, @Param("firstName") String firstName,
+                               @Param("lastName") String lastName, @Param("email") String email);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ROW_WRITE_SPACE))
+    @Query(value = "update employees set first_name = coalesce(:firstName, first_name), last_name = coalesce(:lastName, last_name), " +
+            "email = coalesce(:email, email), version = version + 1 where id = :id and version = coalesce(:version, version)",
+            nativeQuery = true)
+    int patchIfVersionMatches(@Param("id") long id, @Param("version") Long version, @Param("firstName") String firstName,
+                              @Param("lastName") String lastName, @Param("email") String email);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ROW_WRITE_SPACE))
+    @Query(value = "delete from employees where id = :id and version = coalesce(:version, version)", nativeQuery = true)
+    int deleteIfVersionMatches(@Param("id") long id, @Param("version") Long version);
+
+    @Query("select e.version from Employee e where e.id = :id")
+    Long findVersionById(@Param("id") long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("update Employee e set e.firstName = coalesce(:firstName, e.firstName), e.lastName = coalesce(:lastName, e.lastName), " +
+            "e.version = e.version + 1 where e.id in :ids")
+    int patchByIdIn(@Param("ids") Collection<Long> ids, @Param("firstName") String firstName, @Param("lastName") String lastName);
 
 }
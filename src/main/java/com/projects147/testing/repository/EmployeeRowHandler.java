@@ -0,0 +1,11 @@
+package com.projects147.testing.repository;
+
+import java.io.IOException;
+
+// One row of the employees table as plain column values, for readers that write rows out without building an Employee
+@FunctionalInterface
+public interface EmployeeRowHandler {
+
+    void row(long id, String firstName, String lastName, String email, long version) throws IOException;
+
+}
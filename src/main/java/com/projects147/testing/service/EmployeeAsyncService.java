@@ -0,0 +1,24 @@
+package com.projects147.testing.service;
+
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeePage;
+import com.projects147.testing.model.EmployeePatch;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface EmployeeAsyncService {
+
+    CompletableFuture<Employee> saveEmployee(Employee employee);
+
+    CompletableFuture<EmployeePage<Employee>> getEmployeePage(String cursor, int limit);
+
+    CompletableFuture<Optional<Employee>> getEmployeeById(long id);
+
+    CompletableFuture<Employee> updateEmployee(Employee employee);
+
+    CompletableFuture<Void> patchEmployee(long id, EmployeePatch patch);
+
+    CompletableFuture<Void> deleteEmployee(long id, Long version);
+
+}
@@ -0,0 +1,78 @@
+package com.projects147.testing.service;
+
+import com.projects147.testing.config.EmployeeAsyncConfig;
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeePage;
+import com.projects147.testing.model.EmployeePatch;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+@Service
+public class EmployeeAsyncServiceImpl implements EmployeeAsyncService {
+
+    private final EmployeeService employeeService;
+
+    private final ExecutorService readExecutor;
+
+    private final ExecutorService writeExecutor;
+
+    public EmployeeAsyncServiceImpl(EmployeeService employeeService,
+                                    @Qualifier(EmployeeAsyncConfig.READ_EXECUTOR) ExecutorService readExecutor,
+                                    @Qualifier(EmployeeAsyncConfig.WRITE_EXECUTOR) ExecutorService writeExecutor) {
+        this.employeeService = employeeService;
+        this.readExecutor = readExecutor;
+        this.writeExecutor = writeExecutor;
+    }
+
+    @Override
+    public CompletableFuture<Employee> saveEmployee(Employee employee) {
+        return submit(writeExecutor, () -> employeeService.saveEmployee(employee));
+    }
+
+    @Override
+    public CompletableFuture<EmployeePage<Employee>> getEmployeePage(String cursor, int limit) {
+        return submit(readExecutor, () -> employeeService.getEmployeePage(cursor, limit));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Employee>> getEmployeeById(long id) {
+        return submit(readExecutor, () -> employeeService.getEmployeeById(id));
+    }
+
+    @Override
+    public CompletableFuture<Employee> updateEmployee(Employee employee) {
+        return submit(writeExecutor, () -> employeeService.updateEmployee(employee));
+    }
+
+    @Override
+    public CompletableFuture<Void> patchEmployee(long id, EmployeePatch patch) {
+        return submit(writeExecutor, () -> {
+            employeeService.patchEmployee(id, patch);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteEmployee(long id, Long version) {
+        return submit(writeExecutor, () -> {
+            employeeService.deleteEmployee(id, version);
+            return null;
+        });
+    }
+
+//    A full bulkhead fails the future rather than throwing, so callers handle rejection like any other failure
+    private static <T> CompletableFuture<T> submit(ExecutorService executor, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+}
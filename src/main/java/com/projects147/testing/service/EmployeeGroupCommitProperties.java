@@ -0,0 +1,15 @@
+package com.projects147.testing.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// commitTimeout: how long one group's transaction may take; a caller gives up after maxWait plus this
+@ConfigurationProperties("employees.group-commit")
+public record EmployeeGroupCommitProperties(@DefaultValue("100") int maxBatch,
+                                            @DefaultValue("5ms") Duration maxWait,
+                                            @DefaultValue("2") int threads,
+                                            @DefaultValue("1000") int queueCapacity,
+                                            @DefaultValue("10s") Duration commitTimeout) {
+}
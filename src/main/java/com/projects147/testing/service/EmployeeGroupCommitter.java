@@ -0,0 +1,204 @@
+package com.projects147.testing.service;
+
+import com.projects147.testing.exception.AdmissionRejectedException;
+import com.projects147.testing.exception.InvalidEmployeeException;
+import com.projects147.testing.exception.ResourceAlreadyPresentException;
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeBatchResult;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+// Coalesces concurrent single creates into one saveEmployees call, so N callers share one transaction, one duplicate
+// lookup and one batched insert. Each caller waits for its own result or exception, at most maxWait plus commitTimeout.
+@Component
+@ConditionalOnProperty(name = "employees.group-commit.enabled", havingValue = "true")
+@Slf4j
+public class EmployeeGroupCommitter implements MeterBinder {
+
+    private final EmployeeService employeeService;
+
+    private final EmployeeGroupCommitProperties properties;
+
+//    Bounded as well as behind admission control, so committers that fall behind turn callers away instead of piling them up
+    private final BlockingQueue<Pending> queue;
+
+    private final ExecutorService committers;
+
+    private final LongAdder groups = new LongAdder();
+
+    private final LongAdder committed = new LongAdder();
+
+    private volatile boolean stopped;
+
+    public EmployeeGroupCommitter(EmployeeService employeeService, EmployeeGroupCommitProperties properties) {
+        this.employeeService = employeeService;
+        this.properties = properties;
+        this.queue = new LinkedBlockingQueue<>(properties.queueCapacity());
+        this.committers = Executors.newFixedThreadPool(properties.threads(), new CustomizableThreadFactory("employee-group-commit-"));
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < properties.threads(); i++)
+            committers.execute(this::run);
+        log.info("Group committing employee creates in groups of up to {} within {} ms on {} threads",
+                properties.maxBatch(), properties.maxWait().toMillis(), properties.threads());
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        committers.shutdownNow();
+        failQueued();
+    }
+
+    public Employee save(Employee employee) {
+        log.trace("In EmployeeGroupCommitter::save");
+        if (stopped)
+            throw new RejectedExecutionException("Group commit is shut down");
+        Pending pending = new Pending(employee, new CompletableFuture<>());
+        if (!queue.offer(pending))
+            throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE, "Too many creates waiting for group commit", 1);
+//        stop() may have drained the queue just before our add, in which case no committer will ever take it
+        if (stopped)
+            failQueued();
+//        Bounded, so a stuck committer cannot hold request threads forever. A group already being committed may still
+//        insert the employee after we give up; one still queued is skipped.
+        Duration timeout = properties.maxWait().plus(properties.commitTimeout());
+        try {
+            return pending.result().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            pending.result().cancel(false);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Group commit did not finish within " + timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result().cancel(false);
+            throw new RejectedExecutionException("Interrupted while waiting for group commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employees.group.commit.groups", groups, LongAdder::sum).register(registry);
+        FunctionCounter.builder("employees.group.commit.employees", committed, LongAdder::sum).register(registry);
+        Gauge.builder("employees.group.commit.queued", queue, BlockingQueue::size).register(registry);
+    }
+
+    private void run() {
+        List<Pending> group = new ArrayList<>(properties.maxBatch());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                collect(group);
+                commit(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                group.forEach(pending -> pending.result().completeExceptionally(
+                        new RejectedExecutionException("Group commit is shut down")));
+            } catch (Throwable e) {
+//                Errors included: the thread keeps committing, and nobody in the failed group is left waiting
+                log.error("Group commit failed unexpectedly", e);
+                group.forEach(pending -> pending.result().completeExceptionally(e));
+            }
+            group.clear();
+        }
+    }
+
+//    The window opens with the first create, so a lone create waits maxWait at most and a busy queue fills a group at once
+    private void collect(List<Pending> group) throws InterruptedException {
+        group.add(queue.take());
+        long deadline = System.nanoTime() + properties.maxWait().toNanos();
+        while (group.size() < properties.maxBatch()) {
+            queue.drainTo(group, properties.maxBatch() - group.size());
+            if (group.size() == properties.maxBatch())
+                return;
+            Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null)
+                return;
+            group.add(next);
+        }
+    }
+
+    private void commit(List<Pending> group) {
+//        Callers that timed out have cancelled their result and were told the create failed
+        group.removeIf(pending -> pending.result().isDone());
+        if (group.isEmpty())
+            return;
+        List<Employee> employees = group.stream().map(Pending::employee).toList();
+        List<EmployeeBatchResult> results;
+        try {
+            results = employeeService.saveEmployees(employees);
+        } catch (ResourceAlreadyPresentException e) {
+//            Someone else inserted one of the emails after the lookup, which rolled back the whole group. Committing
+//            one by one finds out which caller it belongs to without failing the others.
+            log.debug("Committing group of {} one by one after concurrent insert", group.size(), e);
+            group.forEach(this::commitAlone);
+            return;
+        } catch (RuntimeException e) {
+            group.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+        groups.increment();
+        for (int i = 0; i < group.size(); i++)
+            complete(group.get(i), results.get(i));
+    }
+
+    private void commitAlone(Pending pending) {
+        try {
+            pending.result().complete(employeeService.saveEmployee(pending.employee()));
+            committed.increment();
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private void complete(Pending pending, EmployeeBatchResult result) {
+        switch (result.status()) {
+            case CREATED -> {
+                committed.increment();
+                pending.result().complete(pending.employee());
+            }
+            case DUPLICATE -> pending.result().completeExceptionally(new ResourceAlreadyPresentException(result.message()));
+            case INVALID -> pending.result().completeExceptionally(new InvalidEmployeeException(result.message()));
+        }
+    }
+
+    private void failQueued() {
+        List<Pending> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(pending -> pending.result().completeExceptionally(
+                new RejectedExecutionException("Group commit is shut down")));
+    }
+
+    private record Pending(Employee employee, CompletableFuture<Employee> result) {
+    }
+
+}
@@ -1,20 +1,57 @@
 package com.projects147.testing.service;
 
 import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeBatchResult;
+import com.projects147.testing.model.EmployeeCriteria;
+import com.projects147.testing.model.EmployeeFields;
+import com.projects147.testing.model.EmployeeFingerprint;
+import com.projects147.testing.model.EmployeePage;
+import com.projects147.testing.model.EmployeePatch;
+import com.projects147.testing.model.EmployeeSuggestion;
+import com.projects147.testing.repository.EmployeeRowHandler;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
 
     Employee saveEmployee(Employee employee);
 
+    List<EmployeeBatchResult> saveEmployees(List<Employee> employees);
+
     List<Employee> getAllEmployees();
 
+    EmployeePage<Employee> getEmployeePage(String cursor, int limit);
+
+    EmployeePage<Map<String, Object>> getEmployeePage(String cursor, int limit, EmployeeFields fields);
+
+    EmployeePage<Employee> searchEmployees(String firstName, String lastName, boolean prefix, String cursor, int limit);
+
+    EmployeePage<Map<String, Object>> searchEmployees(String firstName, String lastName, boolean prefix, String cursor,
+                                                      int limit, EmployeeFields fields);
+
+    List<EmployeeSuggestion> suggestEmployees(String prefix, int limit);
+
+    void streamAllEmployees(Consumer<Employee> consumer);
+
+    void streamAllEmployees(EmployeeFields fields, Consumer<Map<String, Object>> consumer);
+
+    void exportEmployees(EmployeeRowHandler handler);
+
+    EmployeeFingerprint getEmployeesFingerprint();
+
     Optional<Employee> getEmployeeById(long id);
 
     Employee updateEmployee(Employee employee);
 
-    void deleteEmployee(long id);
+    void patchEmployee(long id, EmployeePatch patch);
+
+    void deleteEmployee(long id, Long version);
+
+    int patchEmployees(EmployeeCriteria criteria, EmployeePatch patch);
+
+    int deleteEmployees(EmployeeCriteria criteria);
 
 }
@@ -1,30 +1,157 @@
 package com.projects147.testing.service;
 
+import com.projects147.testing.cache.Collation;
+import com.projects147.testing.cache.EmailBloomFilter;
+import com.projects147.testing.cache.EmployeeCache;
+import com.projects147.testing.cache.EmployeeNameIndex;
+import com.projects147.testing.event.EmployeeChangedEvent;
+import com.projects147.testing.exception.InvalidCriteriaException;
+import com.projects147.testing.exception.InvalidSearchException;
 import com.projects147.testing.exception.ResourceAlreadyPresentException;
+import com.projects147.testing.exception.ResourceConflictException;
 import com.projects147.testing.exception.ResourceNotFoundException;
 import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeBatchResult;
+import com.projects147.testing.model.EmployeeCriteria;
+import com.projects147.testing.model.EmployeeCursor;
+import com.projects147.testing.model.EmployeeFields;
+import com.projects147.testing.model.EmployeeFingerprint;
+import com.projects147.testing.model.EmployeePage;
+import com.projects147.testing.model.EmployeePatch;
+import com.projects147.testing.model.EmployeeSuggestion;
+import com.projects147.testing.repository.EmployeeJdbcRepository;
+import com.projects147.testing.repository.EmployeeProjectionRepository;
 import com.projects147.testing.repository.EmployeeRepository;
+import com.projects147.testing.repository.EmployeeRowHandler;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
 import lombok.AllArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
+// One transaction per service call, read-only unless a method says otherwise: Hibernate then loads entities read-only
+// and never flushes, so queries keep no snapshots and skip dirty checking
 @Service
 @AllArgsConstructor
+@Timed("employees.service")
+@Transactional(readOnly = true)
 public class EmployeeServiceImpl implements EmployeeService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+
+    static final int MAX_SUGGESTIONS = 50;
+
+    static final int BULK_CHUNK_SIZE = 1000;
+
     private final EmployeeRepository employeeRepository;
 
+    private final EmployeeJdbcRepository employeeJdbcRepository;
+
+    private final EmployeeProjectionRepository employeeProjectionRepository;
+
+    private final EntityManager entityManager;
+
+    private final EmployeeCache employeeCache;
+
+    private final EmailBloomFilter emailBloomFilter;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectProvider<EmployeeNameIndex> employeeNameIndex;
+
+    private final TransactionTemplate transactionTemplate;
+
     @Override
+    @Transactional
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
+//        The unique index on email does the duplicate check, so an email the filter has never seen costs a single insert.
+//        Only possible duplicates are looked up first, which spares us a failing insert when they turn out to be real.
+        if (emailBloomFilter.mightContain(employee.getEmail())) {
+            if (employeeRepository.findByEmail(employee.getEmail()).isPresent())
+                throw new ResourceAlreadyPresentException("Employee already exists with email: " + employee.getEmail());
+            emailBloomFilter.recordFalsePositive();
+        }
 
-        if (savedEmployee.isPresent()) {
-            throw new ResourceAlreadyPresentException("Employee already exists with email: " + employee.getEmail());
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.save(employee);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConflict(e))
+                throw new ResourceAlreadyPresentException("Employee already exists with email: " + employee.getEmail(), e);
+            throw e;
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(savedEmployee));
+        return savedEmployee;
+    }
+
+    @Override
+    @Transactional
+    public List<EmployeeBatchResult> saveEmployees(List<Employee> employees) {
+        EmployeeBatchResult[] results = new EmployeeBatchResult[employees.size()];
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < employees.size(); i++) {
+            String violation = validate(employees.get(i));
+            if (violation != null)
+                results[i] = EmployeeBatchResult.invalid(violation);
+            else
+                emails.add(employees.get(i).getEmail());
+        }
+
+//        Keyed on the folded email, because the unique index compares case- and accent-insensitively too
+        Set<String> taken = new HashSet<>();
+        if (emails.stream().anyMatch(emailBloomFilter::mightContain))
+            for (String email : employeeRepository.findEmailsByEmailIn(emails))
+                taken.add(Collation.fold(email));
+        List<Employee> inserts = new ArrayList<>();
+        List<Integer> insertPositions = new ArrayList<>();
+        for (int i = 0; i < employees.size(); i++) {
+            if (results[i] != null)
+                continue;
+            Employee employee = employees.get(i);
+//            add() also catches the same email appearing twice within this batch
+            if (!taken.add(Collation.fold(employee.getEmail()))) {
+                results[i] = EmployeeBatchResult.duplicate(employee.getEmail());
+                continue;
+            }
+            inserts.add(employee);
+            insertPositions.add(i);
         }
 
-        return employeeRepository.save(employee);
+        try {
+            employeeJdbcRepository.insertAll(inserts);
+        } catch (DuplicateKeyException e) {
+//            The filter missed an existing email (e.g. written by another node); teach it so a retry runs the lookup
+            emailBloomFilter.addAll(emails);
+            throw new ResourceAlreadyPresentException("An email in this batch was inserted concurrently", e);
+        }
+        for (int i = 0; i < inserts.size(); i++) {
+            results[insertPositions.get(i)] = EmployeeBatchResult.created(inserts.get(i).getId());
+            eventPublisher.publishEvent(EmployeeChangedEvent.created(inserts.get(i)));
+        }
+        return List.of(results);
     }
 
     @Override
@@ -33,27 +160,271 @@ public class EmployeeServiceImpl implements EmployeeService {
     }
 
     @Override
+    public EmployeePage<Employee> getEmployeePage(String cursor, int limit) {
+        int pageSize = pageSize(limit);
+//        Fetch one extra row so we know whether another page exists without a count query
+        List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(EmployeeCursor.decode(cursor), Limit.of(pageSize + 1));
+        return page(employees, pageSize, Employee::getId, Function.identity());
+    }
+
+    @Override
+    public EmployeePage<Map<String, Object>> getEmployeePage(String cursor, int limit, EmployeeFields fields) {
+        int pageSize = pageSize(limit);
+        List<Tuple> rows = employeeProjectionRepository.findByIdGreaterThan(fields, EmployeeCursor.decode(cursor), pageSize + 1);
+        return page(rows, pageSize, EmployeeServiceImpl::idOf, fields::project);
+    }
+
+    @Override
+    public EmployeePage<Employee> searchEmployees(String firstName, String lastName, boolean prefix, String cursor, int limit) {
+        requireName(firstName, lastName);
+        int pageSize = pageSize(limit);
+        List<Employee> employees = employeeRepository.searchByName(likePattern(firstName, prefix), likePattern(lastName, prefix),
+                EmployeeCursor.decode(cursor), Limit.of(pageSize + 1));
+        return page(employees, pageSize, Employee::getId, Function.identity());
+    }
+
+    @Override
+    public EmployeePage<Map<String, Object>> searchEmployees(String firstName, String lastName, boolean prefix, String cursor,
+                                                             int limit, EmployeeFields fields) {
+        requireName(firstName, lastName);
+        int pageSize = pageSize(limit);
+        List<Tuple> rows = employeeProjectionRepository.searchByName(fields, likePattern(firstName, prefix),
+                likePattern(lastName, prefix), EmployeeCursor.decode(cursor), pageSize + 1);
+        return page(rows, pageSize, EmployeeServiceImpl::idOf, fields::project);
+    }
+
+//    Usually answered from memory, so no transaction (and no connection) unless the database is actually queried
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<EmployeeSuggestion> suggestEmployees(String prefix, int limit) {
+        if (isBlank(prefix))
+            return List.of();
+        int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        EmployeeNameIndex index = employeeNameIndex.getIfAvailable();
+        if (index != null && index.isReady())
+            return index.suggest(prefix, size);
+//        Without the in-memory index only a prefix of a single name can use the database indexes
+        return employeeRepository.findSuggestions(likePattern(prefix.strip(), true), Limit.of(size));
+    }
+
+    @Override
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAllByOrderByIdAsc()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+//                Detach as we go so the persistence context does not grow with the table
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    @Override
+    public void streamAllEmployees(EmployeeFields fields, Consumer<Map<String, Object>> consumer) {
+        try (Stream<Tuple> rows = employeeProjectionRepository.streamAll(fields)) {
+            rows.forEach(row -> consumer.accept(fields.project(row)));
+        }
+    }
+
+//    Plain JDBC: the rows never become entities, so there is no persistence context to fill or detach from
+    @Override
+    public void exportEmployees(EmployeeRowHandler handler) {
+        employeeJdbcRepository.exportAll(handler);
+    }
+
+    @Override
+    public EmployeeFingerprint getEmployeesFingerprint() {
+        return employeeRepository.fingerprint();
+    }
+
+//    Cache hits need no connection; a miss runs in the repository's own read-only transaction
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<Employee> getEmployeeById(long id) {
-        Optional<Employee> employee = employeeRepository.findById(id);
+        Optional<Employee> employee = employeeCache.get(id, employeeRepository::findById);
         if (employee.isEmpty())
             throw new ResourceNotFoundException("Employee not found with Id:" + id);
         return employee;
     }
 
     @Override
+    @Transactional
     public Employee updateEmployee(Employee employee) {
-        Optional<Employee> savedEmployee = employeeRepository.findById(employee.getId());
-        if (savedEmployee.isEmpty())
-            throw new ResourceNotFoundException("Employee not found with Id:" + employee.getId());
-        return employeeRepository.save(employee);
+//        One conditional statement; a null version means the caller opted out of optimistic locking
+        int updated = translateEmailConflict(employee.getEmail(), () -> employeeRepository.updateIfVersionMatches(
+                employee.getId(), employee.getVersion(), employee.getFirstName(), employee.getLastName(), employee.getEmail()));
+        if (updated == 0)
+            throw notFoundOrConflict(employee.getId(), employee.getVersion());
+//        Without a version the update was last-writer-wins; our row lock holds until commit, so the version read back is
+//        the one this update produced
+        long version = employee.getVersion() != null ? employee.getVersion() + 1 : employeeRepository.findVersionById(employee.getId());
+        Employee updatedEmployee = Employee.builder().id(employee.getId()).firstName(employee.getFirstName())
+                .lastName(employee.getLastName()).email(employee.getEmail()).version(version).build();
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(updatedEmployee));
+        return updatedEmployee;
     }
 
     @Override
-    public void deleteEmployee(long id) {
-        Optional<Employee> savedEmployee = employeeRepository.findById(id);
-        if (savedEmployee.isEmpty())
-            throw new ResourceNotFoundException("Employee not found with Id:" + id);
-        employeeRepository.deleteById(id);
+    @Transactional
+    public void patchEmployee(long id, EmployeePatch patch) {
+        int updated = translateEmailConflict(patch.email(), () -> employeeRepository.patchIfVersionMatches(
+                id, patch.version(), patch.firstName(), patch.lastName(), patch.email()));
+        if (updated == 0)
+            throw notFoundOrConflict(id, patch.version());
+//        Only the supplied fields are known here, so listeners get a partial employee
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(Employee.builder().id(id).firstName(patch.firstName())
+                .lastName(patch.lastName()).email(patch.email()).build()));
+    }
+
+    @Override
+    @Transactional
+    public void deleteEmployee(long id, Long version) {
+        if (employeeRepository.deleteIfVersionMatches(id, version) == 0)
+            throw notFoundOrConflict(id, version);
+        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+    }
+
+//    Email is unique, so it cannot be set on many employees at once; the version is per employee, so it cannot guard them
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int patchEmployees(EmployeeCriteria criteria, EmployeePatch patch) {
+        requireCriteria(criteria);
+        if (patch.email() != null || patch.version() != null)
+            throw new InvalidCriteriaException("Only firstName and lastName can be changed in bulk");
+        if (patch.firstName() == null && patch.lastName() == null)
+            throw new InvalidCriteriaException("firstName or lastName is required");
+        return inChunks(criteria, ids -> {
+            int updated = employeeRepository.patchByIdIn(ids, patch.firstName(), patch.lastName());
+            for (Long id : ids)
+                eventPublisher.publishEvent(EmployeeChangedEvent.updated(Employee.builder().id(id)
+                        .firstName(patch.firstName()).lastName(patch.lastName()).build()));
+            return updated;
+        });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int deleteEmployees(EmployeeCriteria criteria) {
+        requireCriteria(criteria);
+        return inChunks(criteria, ids -> {
+            int deleted = employeeRepository.deleteByIdIn(ids);
+            for (Long id : ids)
+                eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+            return deleted;
+        });
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static <R, T> EmployeePage<T> page(List<R> rows, int pageSize, ToLongFunction<R> id, Function<R, T> item) {
+        List<T> items = rows.stream().limit(pageSize).map(item).toList();
+        if (rows.size() <= pageSize)
+            return new EmployeePage<>(items, null);
+        return new EmployeePage<>(items, EmployeeCursor.encode(id.applyAsLong(rows.get(pageSize - 1))));
+    }
+
+    private static long idOf(Tuple row) {
+        return row.get("id", Long.class);
+    }
+
+    private static void requireName(String firstName, String lastName) {
+        if (isBlank(firstName) && isBlank(lastName))
+            throw new InvalidSearchException("firstName or lastName is required");
+    }
+
+//    A blank name matches everyone; wildcards typed by the caller are matched literally
+    private static String likePattern(String name, boolean prefix) {
+        if (isBlank(name))
+            return "%";
+        String escaped = escapeLike(name.strip());
+        return prefix ? escaped + "%" : escaped;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static void requireCriteria(EmployeeCriteria criteria) {
+        if (criteria.isEmpty())
+            throw new InvalidCriteriaException("ids, emailDomain or lastName is required");
+    }
+
+//    One short transaction per chunk: its rows are locked, changed in one statement and committed before the next chunk is
+//    read, so a large cleanup never holds every lock or a giant undo log at once, and listeners follow chunk by chunk
+    private int inChunks(EmployeeCriteria criteria, ToIntFunction<List<Long>> statement) {
+        String emailPattern = isBlank(criteria.emailDomain()) ? null : "%@" + escapeLike(criteria.emailDomain().strip());
+        String lastName = isBlank(criteria.lastName()) ? null : criteria.lastName().strip();
+        int affected = 0;
+        if (criteria.ids() != null && !criteria.ids().isEmpty()) {
+//            Given ids are chunked up front, so each chunk binds only its own ids; sorted, so chunks lock in id order
+            List<Long> ids = criteria.ids().stream().filter(Objects::nonNull).distinct().sorted().toList();
+            for (int i = 0; i < ids.size(); i += BULK_CHUNK_SIZE) {
+                List<Long> slice = ids.subList(i, Math.min(i + BULK_CHUNK_SIZE, ids.size()));
+                affected += chunk(slice, emailPattern, lastName, null, slice.size(), statement).affected();
+            }
+            return affected;
+        }
+        long after = 0;
+        Chunk chunk;
+        do {
+            chunk = chunk(null, emailPattern, lastName, after, BULK_CHUNK_SIZE, statement);
+            affected += chunk.affected();
+            after = chunk.lastId();
+        } while (chunk.size() == BULK_CHUNK_SIZE);
+        return affected;
+    }
+
+    private Chunk chunk(List<Long> ids, String emailPattern, String lastName, Long after, int limit,
+                        ToIntFunction<List<Long>> statement) {
+        return transactionTemplate.execute(status -> {
+            List<Long> locked = employeeProjectionRepository.lockIds(ids, emailPattern, lastName, after, limit);
+            if (locked.isEmpty())
+                return new Chunk(0, 0, 0);
+            return new Chunk(locked.size(), locked.get(locked.size() - 1), statement.applyAsInt(locked));
+        });
+    }
+
+//    Only reached when the conditional statement matched nothing, so the common path never pays for it
+    private RuntimeException notFoundOrConflict(long id, Long version) {
+        if (version != null && employeeRepository.existsById(id))
+            return new ResourceConflictException("Employee with Id:" + id + " was modified since version " + version);
+        return new ResourceNotFoundException("Employee not found with Id:" + id);
+    }
+
+    private int translateEmailConflict(String email, IntSupplier statement) {
+        try {
+            return statement.getAsInt();
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConflict(e))
+                throw new ResourceAlreadyPresentException("Employee already exists with email: " + email, e);
+            throw e;
+        }
+    }
+
+    private static boolean isEmailConflict(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase().contains(Employee.EMAIL_CONSTRAINT);
+    }
+
+    private static String validate(Employee employee) {
+        if (employee == null)
+            return "Employee is required";
+        if (isBlank(employee.getFirstName()))
+            return "firstName is required";
+        if (isBlank(employee.getLastName()))
+            return "lastName is required";
+        if (isBlank(employee.getEmail()))
+            return "email is required";
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record Chunk(int size, long lastId, int affected) {
     }
 
 }
@@ -0,0 +1,2 @@
+-- Optimistic locking: existing rows start at version 0
+alter table employees add column version bigint not null default 0;
@@ -0,0 +1,18 @@
+-- The unique key cannot be added while duplicates exist. The oldest row keeps the email, later rows have it
+-- cleared, and what was cleared is kept in employee_email_duplicates to be reconciled by hand. Grouping on the
+-- column compares with its collation, the same way the unique key will.
+create table employee_email_duplicates (
+    employee_id bigint not null,
+    email varchar(255) not null,
+    primary key (employee_id)
+);
+
+insert into employee_email_duplicates (employee_id, email)
+select e.id, e.email
+from employees e
+where e.email is not null
+  and e.id not in (select kept.id from (select min(id) as id from employees where email is not null group by email) kept);
+
+update employees set email = null where id in (select employee_id from employee_email_duplicates);
+
+alter table employees add constraint uk_employees_email unique (email);
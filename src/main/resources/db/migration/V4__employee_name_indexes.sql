@@ -0,0 +1,3 @@
+-- Lookups by full name (either order) and lists sorted by name
+create index idx_employees_last_first on employees (last_name, first_name);
+create index idx_employees_first_last on employees (first_name, last_name);
@@ -0,0 +1,16 @@
+-- Change log read by the other nodes to invalidate their caches. ddl-auto: update may have created it already,
+-- with a native enum type column; it only holds the last few changes, so it is recreated rather than altered.
+drop table if exists employee_outbox;
+
+create table employee_outbox (
+    id bigint not null auto_increment,
+    node_id varchar(255) not null,
+    type varchar(255) not null,
+    employee_id bigint not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    email varchar(255),
+    version bigint,
+    created_at bigint not null,
+    primary key (id)
+);
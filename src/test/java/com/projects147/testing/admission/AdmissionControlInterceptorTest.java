@@ -0,0 +1,86 @@
+package com.projects147.testing.admission;
+
+import com.projects147.testing.exception.AdmissionRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdmissionControlInterceptorTest {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void givenClientSpentItsBurst_whenNextRequest_thenRejectWith429UntilRefilled() {
+        //given
+        AdmissionControlInterceptor interceptor = interceptor(new AdmissionProperties.Limits(1, 2, 10, 0, Duration.ZERO));
+        admit(interceptor, post("client-a"));
+        admit(interceptor, post("client-a"));
+
+        //when
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class,
+                () -> interceptor.preHandle(post("client-a"), response, null));
+
+        //then
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(exception.getHeaders().getFirst("Retry-After")).isEqualTo("1");
+        assertThat(interceptor.preHandle(post("client-b"), response, null)).isTrue();
+    }
+
+    @Test
+    void givenAllSlotsBusyAndNoQueue_whenRequest_thenShedWith503UntilASlotFrees() {
+        //given
+        AdmissionControlInterceptor interceptor = interceptor(new AdmissionProperties.Limits(100, 100, 1, 0, Duration.ofMillis(500)));
+        MockHttpServletRequest running = post("client-a");
+        admit(interceptor, running);
+
+        //when
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class,
+                () -> interceptor.preHandle(post("client-b"), response, null));
+
+        //then
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(exception.getRetryAfterSeconds()).isEqualTo(1);
+        interceptor.afterCompletion(running, response, null, null);
+        assertThat(interceptor.preHandle(post("client-b"), response, null)).isTrue();
+    }
+
+    @Test
+    void givenEmptyBucket_whenTimePasses_thenRefillAtRate() {
+        //given
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+        bucket.tryTake(0);
+
+        //when
+        long wait = bucket.tryTake(0);
+
+        //then
+        assertThat(wait).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(bucket.tryTake(TimeUnit.MILLISECONDS.toNanos(99))).isPositive();
+        assertThat(bucket.tryTake(TimeUnit.MILLISECONDS.toNanos(100))).isZero();
+    }
+
+    private static AdmissionControlInterceptor interceptor(AdmissionProperties.Limits write) {
+        return new AdmissionControlInterceptor(new AdmissionProperties("X-Client-Id",
+                new AdmissionProperties.Limits(100, 100, 10, 0, Duration.ZERO), write));
+    }
+
+    private void admit(AdmissionControlInterceptor interceptor, MockHttpServletRequest request) {
+        assertThat(interceptor.preHandle(request, response, null)).isTrue();
+    }
+
+    private static MockHttpServletRequest post(String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/employees");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/employees");
+        request.addHeader("X-Client-Id", client);
+        return request;
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.projects147.testing.cache;
+
+import com.projects147.testing.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailBloomFilterTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    void givenFilterNotBuilt_whenMightContain_thenReturnTrue() {
+        //given
+        EmailBloomFilter filter = new EmailBloomFilter(employeeRepository, new EmailBloomFilterProperties(1000, 0.01));
+
+        //when
+        boolean result = filter.mightContain("mselby@test.com");
+
+        //then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    void givenFilterNotBuilt_whenRecordFalsePositive_thenCountOnlyThoseAfterTheBuild() {
+        //given
+        EmailBloomFilter filter = new EmailBloomFilter(employeeRepository, new EmailBloomFilterProperties(1000, 0.01));
+        when(employeeRepository.streamAllEmails()).thenReturn(Stream.empty());
+
+        //when
+        filter.recordFalsePositive();
+        filter.rebuild();
+        filter.recordFalsePositive();
+
+        //then
+        assertThat(filter.stats().falsePositives()).isEqualTo(1);
+    }
+
+    @Test
+    void givenRebuiltFilter_whenMightContain_thenKnownEmailsArePresentIgnoringCaseAndAccents() {
+        //given
+        EmailBloomFilter filter = new EmailBloomFilter(employeeRepository, new EmailBloomFilterProperties(1000, 0.01));
+        when(employeeRepository.streamAllEmails()).thenReturn(Stream.of("mselby@test.com", "josé@test.com"));
+
+        //when
+        filter.rebuild();
+
+        //then
+        assertThat(filter.mightContain("MSelby@test.com")).isTrue();
+        assertThat(filter.mightContain("jose@test.com")).isTrue();
+        assertThat(filter.mightContain("jtrump@test.com")).isFalse();
+    }
+
+    @Test
+    void givenEmailAddedAfterRebuild_whenMightContain_thenReturnTrue() {
+        //given
+        EmailBloomFilter filter = new EmailBloomFilter(employeeRepository, new EmailBloomFilterProperties(1000, 0.01));
+        when(employeeRepository.streamAllEmails()).thenReturn(Stream.empty());
+        filter.rebuild();
+
+        //when
+        filter.add("jtrump@test.com");
+
+        //then
+        assertThat(filter.mightContain("jtrump@test.com")).isTrue();
+    }
+
+    @Test
+    void givenFilterAtCapacity_whenCheckingUnknownEmails_thenFalsePositiveRateStaysNearTarget() {
+        //given
+        EmailBloomFilter filter = new EmailBloomFilter(employeeRepository, new EmailBloomFilterProperties(10_000, 0.01));
+        when(employeeRepository.streamAllEmails()).thenReturn(IntStream.range(0, 10_000).mapToObj(i -> "known" + i + "@test.com"));
+        filter.rebuild();
+
+        //when
+        long falsePositives = IntStream.range(0, 10_000).filter(i -> filter.mightContain("unknown" + i + "@test.com")).count();
+
+        //then
+        assertThat(falsePositives).isLessThan(300);
+        assertThat(filter.stats().expectedFalsePositiveProbability()).isLessThan(0.03);
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.projects147.testing.cache;
+
+import com.projects147.testing.event.EmployeeChangedEvent;
+import com.projects147.testing.model.Employee;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeCacheTest {
+
+    private final EmployeeCache employeeCache = new EmployeeCache(new EmployeeCacheProperties(100, Duration.ofMinutes(10), Duration.ZERO, Duration.ZERO));
+
+    @Test
+    void givenCachedEmployee_whenEmployeeChanged_thenReloadOnNextGet() {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        AtomicInteger loads = new AtomicInteger();
+        employeeCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(employee);
+        });
+
+        //when
+        employeeCache.onEmployeeChanged(EmployeeChangedEvent.updated(employee));
+        employeeCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(employee);
+        });
+
+        //then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void givenExpiredNegativeEntry_whenGet_thenReload() {
+        //given
+        AtomicInteger loads = new AtomicInteger();
+        employeeCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        //when
+        employeeCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        //then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void givenBoundRegistry_whenGet_thenRecordHitsAndMisses() {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        employeeCache.bindTo(registry);
+        Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+
+        //when
+        employeeCache.get(1L, id -> Optional.of(employee));
+        employeeCache.get(1L, id -> Optional.of(employee));
+
+        //then
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+}
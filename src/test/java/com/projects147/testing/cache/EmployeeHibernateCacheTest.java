@@ -0,0 +1,146 @@
+package com.projects147.testing.cache;
+
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeePatch;
+import com.projects147.testing.repository.EmployeeRepository;
+import com.projects147.testing.service.EmployeeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hibernate-cache;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=H2",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "employees.outbox.enabled=false"})
+class EmployeeHibernateCacheTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void givenEmployeeReadOnce_whenReadAgainByIdEmailOrName_thenIssueNoSql() {
+        //given
+        Employee employee = employeeRepository.save(Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build());
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        employeeRepository.findById(employee.getId());
+        employeeRepository.findByEmail("mselby@test.com");
+        employeeRepository.findByEmployeeFirstNameAndLastName("Mark", "Selby");
+        long statements = statistics.getPrepareStatementCount();
+
+        //when
+        Employee byId = employeeRepository.findById(employee.getId()).orElseThrow();
+        Employee byEmail = employeeRepository.findByEmail("mselby@test.com").orElseThrow();
+        List<Employee> byName = employeeRepository.findByEmployeeFirstNameAndLastName("Mark", "Selby");
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(byId.getEmail()).isEqualTo("mselby@test.com");
+        assertThat(byEmail.getId()).isEqualTo(employee.getId());
+        assertThat(byName).extracting(Employee::getId).containsExactly(employee.getId());
+        assertThat(statistics.getDomainDataRegionStatistics(Employee.CACHE_REGION).getHitCount()).isPositive();
+        assertThat(statistics.getQueryRegionStatistics(EmployeeRepository.BY_EMAIL_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getQueryRegionStatistics(EmployeeRepository.BY_NAME_REGION).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void givenCachedReads_whenEmployeesChangeOutsideHibernateOrThroughBulkUpdates_thenReadTheChanges() {
+        //given
+        Employee employee = employeeRepository.save(Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build());
+        assertThat(employeeRepository.findByEmail("jtrump@test.com")).isEmpty();
+        assertThat(employeeRepository.findByEmployeeFirstNameAndLastName("Mark", "Allen")).isEmpty();
+
+        //when
+        employeeService.saveEmployees(List.of(Employee.builder().firstName("Judd").lastName("Trump").email("jtrump@test.com").build()));
+
+        //then
+        assertThat(employeeRepository.findByEmail("jtrump@test.com")).isPresent();
+
+        //when
+        employeeService.updateEmployee(Employee.builder().id(employee.getId()).version(0L).firstName("Mark").lastName("Allen")
+                .email("mselby@test.com").build());
+
+        //then
+        assertThat(employeeRepository.findByEmployeeFirstNameAndLastName("Mark", "Allen")).hasSize(1);
+        assertThat(employeeRepository.findById(employee.getId()).orElseThrow().getLastName()).isEqualTo("Allen");
+    }
+
+    @Test
+    void givenWarmCache_whenSingleEmployeesAreUpdatedPatchedAndDeleted_thenOnlyTheirEntriesAreEvicted() {
+        //given
+        List<Employee> employees = IntStream.range(0, 30).mapToObj(i -> employeeRepository.save(Employee.builder()
+                .firstName("First" + i).lastName("Last" + i).email("employee" + i + "@test.com").build())).toList();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        employees.forEach(employee -> employeeRepository.findById(employee.getId()));
+        CacheRegionStatistics entityRegion = statistics.getDomainDataRegionStatistics(Employee.CACHE_REGION);
+        long hits = entityRegion.getHitCount();
+        long misses = entityRegion.getMissCount();
+        Set<Long> deleted = new HashSet<>();
+
+        //when
+        for (int i = 0; i < 9; i++) {
+            Employee employee = employees.get(i);
+            switch (i % 3) {
+                case 0 -> employeeService.updateEmployee(Employee.builder().id(employee.getId()).version(0L)
+                        .firstName("Updated").lastName("Last" + i).email(employee.getEmail()).build());
+                case 1 -> employeeService.patchEmployee(employee.getId(), new EmployeePatch("Patched", null, null, 0L));
+                default -> {
+                    employeeService.deleteEmployee(employee.getId(), 0L);
+                    deleted.add(employee.getId());
+                }
+            }
+            employees.stream().filter(e -> !deleted.contains(e.getId())).forEach(e -> employeeRepository.findById(e.getId()));
+        }
+
+        //then
+        long reads = entityRegion.getHitCount() - hits + entityRegion.getMissCount() - misses;
+        assertThat(entityRegion.getMissCount() - misses).isEqualTo(6);
+        assertThat((double) (entityRegion.getHitCount() - hits) / reads).isGreaterThan(0.95);
+        assertThat(employeeRepository.findById(employees.get(1).getId()).orElseThrow().getFirstName()).isEqualTo("Patched");
+        assertThat(employeeRepository.findById(employees.get(2).getId())).isEmpty();
+    }
+
+    @Test
+    void givenEmployeeCachedByEmail_whenOnlyTheNameIsPatched_thenFindByEmailReturnsThePatchedRow() {
+        //given
+        Employee employee = employeeRepository.save(Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build());
+        employeeRepository.findByEmail("mselby@test.com");
+
+        //when
+        employeeService.patchEmployee(employee.getId(), new EmployeePatch(null, "Allen", null, null));
+
+        //then
+        Employee byEmail = employeeRepository.findByEmail("mselby@test.com").orElseThrow();
+        assertThat(byEmail.getLastName()).isEqualTo("Allen");
+        assertThat(byEmail.getVersion()).isEqualTo(1L);
+    }
+
+}
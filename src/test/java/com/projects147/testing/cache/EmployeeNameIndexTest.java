@@ -0,0 +1,66 @@
+package com.projects147.testing.cache;
+
+import com.projects147.testing.event.EmployeeChangedEvent;
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeSuggestion;
+import com.projects147.testing.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeNameIndexTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @InjectMocks
+    private EmployeeNameIndex employeeNameIndex;
+
+    @Test
+    void givenRebuiltIndex_whenSuggest_thenMatchPrefixOfEitherNameIgnoringCaseAndAccents() {
+        //given
+        when(employeeRepository.streamAllSuggestions()).thenReturn(Stream.of(
+                new EmployeeSuggestion(1L, "José", "Selby"),
+                new EmployeeSuggestion(2L, "Judd", "Trump"),
+                new EmployeeSuggestion(3L, "Mark", "Jones")));
+
+        //when
+        employeeNameIndex.rebuild();
+
+        //then
+        assertThat(employeeNameIndex.isReady()).isTrue();
+        assertThat(employeeNameIndex.suggest("JO", 10)).extracting(EmployeeSuggestion::id).containsExactly(3L, 1L);
+        assertThat(employeeNameIndex.suggest("trump ju", 10)).extracting(EmployeeSuggestion::id).containsExactly(2L);
+        assertThat(employeeNameIndex.suggest("j", 1)).hasSize(1);
+    }
+
+    @Test
+    void givenIndexedEmployee_whenPatchedAndDeleted_thenFollowTheChanges() {
+        //given
+        employeeNameIndex.onEmployeeChanged(EmployeeChangedEvent.created(
+                Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby@test.com").build()));
+
+        //when
+        employeeNameIndex.onEmployeeChanged(EmployeeChangedEvent.updated(Employee.builder().id(1L).lastName("Allen").build()));
+
+        //then
+        assertThat(employeeNameIndex.suggest("selby", 10)).isEmpty();
+        assertThat(employeeNameIndex.suggest("mark al", 10)).containsExactly(new EmployeeSuggestion(1L, "Mark", "Allen"));
+
+        //when
+        employeeNameIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(1L));
+
+        //then
+        assertThat(employeeNameIndex.suggest("mark", 10)).isEmpty();
+        assertThat(employeeNameIndex.size()).isZero();
+    }
+
+}
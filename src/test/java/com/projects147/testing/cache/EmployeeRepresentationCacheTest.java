@@ -0,0 +1,48 @@
+package com.projects147.testing.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projects147.testing.event.EmployeeChangedEvent;
+import com.projects147.testing.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeRepresentationCacheTest {
+
+    private final EmployeeRepresentationCache representationCache = new EmployeeRepresentationCache(new ObjectMapper(),
+            new EmployeeRepresentationCacheProperties(DataSize.ofMegabytes(1), Duration.ofMinutes(10)));
+
+    @Test
+    void givenCachedRepresentation_whenEmployeeChanged_thenReserializeWithNewEtag() {
+        //given
+        AtomicInteger loads = new AtomicInteger();
+        Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby@test.com").version(0L).build();
+        EmployeeRepresentationCache.Representation first = representationCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return employee;
+        });
+        representationCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return employee;
+        });
+
+        //when
+        employee.setVersion(1L);
+        representationCache.onEmployeeChanged(EmployeeChangedEvent.updated(employee));
+        EmployeeRepresentationCache.Representation second = representationCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return employee;
+        });
+
+        //then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(first.etag()).isEqualTo("\"1-0\"");
+        assertThat(second.etag()).isEqualTo("\"1-1\"");
+        assertThat(new String(second.body())).contains("\"lastName\":\"Selby\"");
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.projects147.testing.controller;
+
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.service.EmployeeAsyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeAsyncController.class)
+class EmployeeAsyncControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeAsyncService employeeAsyncService;
+
+    @Test
+    void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeAsynchronously() throws Exception {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        when(employeeAsyncService.getEmployeeById(1L)).thenReturn(CompletableFuture.completedFuture(Optional.of(employee)));
+
+        //when
+        MvcResult result = mockMvc.perform(get("/api/async/employees/{id}", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("Mark")));
+    }
+
+    @Test
+    void givenFullReadBulkhead_whenGetEmployeeById_thenReturnServiceUnavailable() throws Exception {
+        //given
+        when(employeeAsyncService.getEmployeeById(1L)).thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException()));
+
+        //when
+        MvcResult result = mockMvc.perform(get("/api/async/employees/{id}", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+}
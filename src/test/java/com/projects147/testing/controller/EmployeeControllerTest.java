@@ -1,29 +1,59 @@
 package com.projects147.testing.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.projects147.testing.cache.EmployeeRepresentationCache;
+import com.projects147.testing.cache.EmployeeRepresentationCacheProperties;
+import com.projects147.testing.exception.ResourceAlreadyPresentException;
+import com.projects147.testing.exception.ResourceNotFoundException;
 import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeBatchResult;
+import com.projects147.testing.model.EmployeeCriteria;
+import com.projects147.testing.model.EmployeeCursor;
+import com.projects147.testing.model.EmployeeFingerprint;
+import com.projects147.testing.model.EmployeePage;
+import com.projects147.testing.model.EmployeePatch;
+import com.projects147.testing.repository.EmployeeRowHandler;
 import com.projects147.testing.service.EmployeeService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(EmployeeController.class)
+@Import(EmployeeRepresentationCache.class)
+@EnableConfigurationProperties(EmployeeRepresentationCacheProperties.class)
 public class EmployeeControllerTest {
 
     @Autowired
@@ -54,12 +84,88 @@ public class EmployeeControllerTest {
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    @Test
+    void givenEmployeeArray_whenCreateEmployeesInBatch_thenReturnPerItemResults() throws Exception {
+        //given
+        Employee employee1 = Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        Employee employee2 = Employee.builder().firstName("Judd").lastName("Trump").email("mselby@test.com").build();
+        when(employeeService.saveEmployees(anyList()))
+                .thenReturn(List.of(EmployeeBatchResult.created(1L), EmployeeBatchResult.duplicate(employee2.getEmail())));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(employee1, employee2))));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[1].status", is("DUPLICATE")));
+    }
+
+    @Test
+    void givenChunkCollidingTwice_whenCreateEmployeesInBatch_thenSaveRowByRow() throws Exception {
+        //given
+        Employee employee1 = Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        Employee employee2 = Employee.builder().firstName("Judd").lastName("Trump").email("jtrump@test.com").build();
+        when(employeeService.saveEmployees(argThat(chunk -> chunk != null && chunk.size() == 2)))
+                .thenThrow(new ResourceAlreadyPresentException("An email in this batch was inserted concurrently"));
+        when(employeeService.saveEmployees(argThat(chunk -> chunk != null && chunk.size() == 1
+                && "mselby@test.com".equals(chunk.get(0).getEmail()))))
+                .thenThrow(new ResourceAlreadyPresentException("An email in this batch was inserted concurrently"));
+        when(employeeService.saveEmployees(argThat(chunk -> chunk != null && chunk.size() == 1
+                && "jtrump@test.com".equals(chunk.get(0).getEmail()))))
+                .thenReturn(List.of(EmployeeBatchResult.created(2L)));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(employee1, employee2))));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].status", is("DUPLICATE")))
+                .andExpect(jsonPath("$[1].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].id", is(2)));
+    }
+
+    @Test
+    void givenNdjsonStream_whenCreateEmployeesInBatch_thenReturnPerItemResults() throws Exception {
+        //given
+        Employee employee1 = Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        Employee employee2 = Employee.builder().firstName("Judd").lastName("Trump").build();
+        when(employeeService.saveEmployees(anyList()))
+                .thenReturn(List.of(EmployeeBatchResult.created(1L), EmployeeBatchResult.invalid("email is required")));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(objectMapper.writeValueAsString(employee1) + "\n" + objectMapper.writeValueAsString(employee2) + "\n"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[1].status", is("INVALID")))
+                .andExpect(jsonPath("$[1].message", is("email is required")));
+    }
+
     @Test
     void givenEmployees_whenGetAllEmployees_thenReturnAllEmployees() throws Exception {
         //given
         Employee employee1 = Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build();
         Employee employee2 = Employee.builder().firstName("Judd").lastName("Trump").email("jtrump@test.com").build();
-        when(employeeService.getAllEmployees()).thenReturn(List.of(employee1, employee2));
+        doAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            List.of(employee1, employee2).forEach(consumer);
+            return null;
+        }).when(employeeService).streamAllEmployees(any());
+        when(employeeService.getEmployeesFingerprint()).thenReturn(new EmployeeFingerprint(2, 2, 0));
 
         //when
         ResultActions response = mockMvc.perform(get("/api/employees"));
@@ -67,7 +173,82 @@ public class EmployeeControllerTest {
         //then
         response.andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()", is(2)));
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[1].lastName", is("Trump")));
+    }
+
+    @Test
+    void givenCborAccept_whenGetAllEmployees_thenStreamCbor() throws Exception {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        doAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            return null;
+        }).when(employeeService).streamAllEmployees(any());
+        when(employeeService.getEmployeesFingerprint()).thenReturn(new EmployeeFingerprint(1, 1, 0));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees").accept(MediaType.APPLICATION_CBOR));
+
+        //then
+        byte[] body = response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"list-1-1-0;cbor\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new CBORMapper().readValue(body, Employee[].class)).extracting(Employee::getLastName).containsExactly("Selby");
+    }
+
+    @Test
+    void givenUnchangedFingerprint_whenGetAllEmployeesWithMatchingEtag_thenReturnNotModified() throws Exception {
+        //given
+        when(employeeService.getEmployeesFingerprint()).thenReturn(new EmployeeFingerprint(2, 2, 0));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, "\"list-2-2-0\""));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(employeeService, never()).streamAllEmployees(any());
+    }
+
+    @Test
+    void givenLimit_whenGetEmployeePage_thenReturnPageWithNextCursor() throws Exception {
+        //given
+        Employee employee1 = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        Employee employee2 = Employee.builder().id(2L).firstName("Judd").lastName("Trump").email("jtrump@test.com").build();
+        String nextCursor = EmployeeCursor.encode(employee2.getId());
+        when(employeeService.getEmployeePage(isNull(), any(Integer.class))).thenReturn(new EmployeePage<>(List.of(employee1, employee2), nextCursor));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees").param("limit", "2"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.size()", is(2)))
+                .andExpect(jsonPath("$.nextCursor", is(nextCursor)));
+    }
+
+    @Test
+    void givenNamePrefix_whenSearchEmployees_thenReturnPage() throws Exception {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        when(employeeService.searchEmployees(isNull(), any(String.class), any(Boolean.class), isNull(), any(Integer.class)))
+                .thenReturn(new EmployeePage<>(List.of(employee), null));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/search").param("lastName", "Sel").param("prefix", "true"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].lastName", is("Selby")));
+        verify(employeeService).searchEmployees(null, "Sel", true, null, 20);
     }
 
     @Test
@@ -85,4 +266,264 @@ public class EmployeeControllerTest {
                 .andExpect(jsonPath("$.firstName", is("Mark")));
     }
 
+    @Test
+    void givenCachedRepresentation_whenGetEmployeeByIdWithMatchingEtag_thenReturnNotModified() throws Exception {
+        //given
+        Employee employee = Employee.builder().id(2L).firstName("Mark").lastName("Selby").email("mselby@test.com").version(3L).build();
+        when(employeeService.getEmployeeById(employee.getId())).thenReturn(Optional.of(employee));
+        mockMvc.perform(get("/api/employees/{id}", employee.getId()))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-3\""));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employee.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"2-3\""));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNotModified());
+        verify(employeeService).getEmployeeById(employee.getId());
+    }
+
+    @Test
+    void givenFields_whenGetEmployeeById_thenReturnOnlyThoseFields() throws Exception {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        when(employeeService.getEmployeeById(1L)).thenReturn(Optional.of(employee));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", 1L).param("fields", "id,lastName"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":1,\"lastName\":\"Selby\"}", true));
+    }
+
+    @Test
+    void givenUnknownField_whenGetEmployeePage_thenReturnBadRequest() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees").param("limit", "2").param("fields", "id,salary"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Invalid fields")));
+    }
+
+    @Test
+    void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee() throws Exception {
+        //given
+        Employee employee = Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").version(1L).build();
+        Employee updatedEmployee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby@test.com").version(2L).build();
+        when(employeeService.updateEmployee(any(Employee.class))).thenReturn(updatedEmployee);
+
+        //when
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.version", is(2)));
+    }
+
+    @Test
+    void givenPartialEmployee_whenPatchEmployee_thenReturnNoContent() throws Exception {
+        //given
+        EmployeePatch patch = new EmployeePatch(null, null, "mark.selby@test.com", 1L);
+
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"mark.selby@test.com\",\"version\":1}"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNoContent());
+        verify(employeeService).patchEmployee(1L, patch);
+    }
+
+    @Test
+    void givenMissingEmployee_whenGetEmployee_thenReturnNotFoundWithFixedBody() throws Exception {
+        //given
+        when(employeeService.getEmployeeById(1L)).thenThrow(new ResourceNotFoundException("Employee not found with Id:1"));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", 1L));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNotFound())
+                .andExpect(content().json("{\"status\":404,\"error\":\"Employee not found\"}", true));
+    }
+
+    @Test
+    void givenTakenEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+        //given
+        Employee employee = Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        when(employeeService.saveEmployee(any(Employee.class)))
+                .thenThrow(new ResourceAlreadyPresentException("Employee already exists with email: mselby@test.com"));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Employee already exists")));
+    }
+
+    @Test
+    void givenEmployees_whenExportAsCsv_thenStreamQuotedRows() throws Exception {
+        //given
+        doAnswer(invocation -> {
+            EmployeeRowHandler handler = invocation.getArgument(0);
+            handler.row(1L, "Mark", "Selby", "mselby@test.com", 0L);
+            handler.row(2L, "Ronnie \"The Rocket\"", "O'Sullivan, Jr", null, 3L);
+            return null;
+        }).when(employeeService).exportEmployees(any(EmployeeRowHandler.class));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/export").param("format", "csv"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.csv\""))
+                .andExpect(content().string("id,firstName,lastName,email,version\r\n"
+                        + "1,Mark,Selby,mselby@test.com,0\r\n"
+                        + "2,\"Ronnie \"\"The Rocket\"\"\",\"O'Sullivan, Jr\",,3\r\n"));
+    }
+
+    @Test
+    void givenEmployees_whenExportAsNdjson_thenStreamOneObjectPerLine() throws Exception {
+        //given
+        doAnswer(invocation -> {
+            EmployeeRowHandler handler = invocation.getArgument(0);
+            handler.row(1L, "Mark", "Selby", "mselby@test.com", 0L);
+            handler.row(2L, "Judd", "Trump", "jtrump@test.com", 1L);
+            return null;
+        }).when(employeeService).exportEmployees(any(EmployeeRowHandler.class));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/export").param("format", "ndjson"));
+
+        //then
+        String[] lines = response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2).allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"));
+        assertThat(objectMapper.readValue(lines[1], Employee.class)).usingRecursiveComparison()
+                .isEqualTo(Employee.builder().id(2L).firstName("Judd").lastName("Trump").email("jtrump@test.com").version(1L).build());
+    }
+
+    @Test
+    void givenUnknownFormat_whenExport_thenReturnBadRequest() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/export").param("format", "xml"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("format must be csv or ndjson")));
+        verify(employeeService, never()).exportEmployees(any());
+    }
+
+    @Test
+    void givenCriteria_whenDeleteEmployees_thenReturnAffectedCount() throws Exception {
+        //given
+        when(employeeService.deleteEmployees(new EmployeeCriteria(List.of(1L, 2L), "test.com", null))).thenReturn(2);
+
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees").param("ids", "1,2").param("emailDomain", "test.com"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected", is(2)));
+    }
+
+    @Test
+    void givenCriteriaAndPatch_whenPatchEmployees_thenReturnAffectedCount() throws Exception {
+        //given
+        EmployeePatch patch = new EmployeePatch(null, "Selby-Smith", null, null);
+        when(employeeService.patchEmployees(new EmployeeCriteria(null, null, "Selby"), patch)).thenReturn(3);
+
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/employees").param("lastName", "Selby")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected", is(3)));
+    }
+
+    @Test
+    void givenEmployeeId_whenDeleteEmployee_thenReturnNoContent() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", 1L));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNoContent());
+        verify(employeeService).deleteEmployee(1L, null);
+    }
+
+    @Test
+    void givenIfMatch_whenDeleteEmployee_thenDeleteOnlyThatVersion() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", 1L).header(HttpHeaders.IF_MATCH, "W/\"1-3\""));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNoContent());
+        verify(employeeService).deleteEmployee(1L, 3L);
+    }
+
+    @Test
+    void givenEtagOfProjectedRepresentation_whenPatchEmployeeWithIfMatch_thenPatchThatVersion() throws Exception {
+        //given
+        when(employeeService.getEmployeeById(1L)).thenReturn(Optional.of(Employee.builder().id(1L).firstName("Mark")
+                .lastName("Selby").email("mselby@test.com").version(3L).build()));
+        String etag = mockMvc.perform(get("/api/employees/{id}", 1L).param("fields", "firstName"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", 1L).header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"lastName\":\"Allen\"}"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNoContent());
+        assertThat(etag).isEqualTo("\"1-3;firstName\"");
+        verify(employeeService).patchEmployee(1L, new EmployeePatch(null, "Allen", null, 3L));
+    }
+
+    @Test
+    void givenIfMatchForAnotherEmployee_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+        //given
+        Employee employee = Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+
+        //when
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", 1L).header(HttpHeaders.IF_MATCH, "\"2-3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status", is(412)))
+                .andExpect(jsonPath("$.error", is("If-Match does not match the employee")));
+        verify(employeeService, never()).updateEmployee(any());
+    }
+
 }
@@ -0,0 +1,170 @@
+package com.projects147.testing.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projects147.testing.integration.SqlStatementBudget;
+import com.projects147.testing.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The statements each endpoint may run, outbox included, so a change that adds a query to a request fails here on H2
+// rather than only in the MySQL integration tests. Every test works on its own emails and names.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sql-budget;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=H2",
+        "spring.jpa.hibernate.ddl-auto=create-drop"})
+@AutoConfigureMockMvc
+class EmployeeSqlBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void givenNewAndTakenEmails_whenCreateEmployee_thenInsertWithOutboxRowOrFailOnTheInsert() throws Exception {
+        //when //then
+        SqlStatementBudget.expect(2, () -> mockMvc.perform(post("/api/employees").contentType(MediaType.APPLICATION_JSON)
+                        .content(employee("Mark", "Selby", "mselby@budget.com")))
+                .andExpect(status().isCreated()));
+        SqlStatementBudget.expect(1, () -> mockMvc.perform(post("/api/employees").contentType(MediaType.APPLICATION_JSON)
+                        .content(employee("Mark", "Selby", "mselby@budget.com")))
+                .andExpect(status().isConflict()));
+    }
+
+    @Test
+    void givenBatchOfNewEmails_whenCreateEmployeesInBatch_thenLookUpOnlyEmailsThatMayBeTaken() throws Exception {
+        //when //then
+//        The email filter has seen none of the addresses, so the employees and their outbox rows go in one batch each
+        SqlStatementBudget.expect(2, () -> mockMvc.perform(post("/api/employees/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + employee("Judd", "Trump", "jtrump@batch.com") + "," + employee("Neil", "Robertson", "nrobertson@batch.com")
+                                + "," + employee("Kyren", "Wilson", "kwilson@batch.com") + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3))));
+//        One address may be taken, so one lookup finds which before the new one is inserted
+        SqlStatementBudget.expect(3, () -> mockMvc.perform(post("/api/employees/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + employee("Judd", "Trump", "jtrump@batch.com") + "," + employee("Mark", "Williams", "mwilliams@batch.com") + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("DUPLICATE")))
+                .andExpect(jsonPath("$[1].status", is("CREATED"))));
+    }
+
+    @Test
+    void givenEmployees_whenListed_thenRunFingerprintAndStreamOrOnlyFingerprintWhenUnchanged() throws Exception {
+        //given
+        create("Ronnie", "O'Sullivan", "ronnie@list.com");
+
+        //when //then
+        String etag = SqlStatementBudget.expect(2, () -> mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk())).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        SqlStatementBudget.expect(1, () -> mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified()));
+    }
+
+    @Test
+    void givenEmployees_whenPagedSearchedSuggestedOrExported_thenRunOneQueryEach() throws Exception {
+        //given
+        create("John", "Higgins", "jhiggins@read.com");
+
+        //when //then
+        SqlStatementBudget.expect(1, () -> mockMvc.perform(get("/api/employees").param("limit", "10"))
+                .andExpect(status().isOk()));
+        SqlStatementBudget.expect(1, () -> mockMvc.perform(get("/api/employees/search").param("lastName", "Higgins"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1))));
+        SqlStatementBudget.expect(0, () -> mockMvc.perform(get("/api/employees/autocomplete").param("q", "Higg"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1))));
+        SqlStatementBudget.expect(1, () -> mockMvc.perform(get("/api/employees/export").param("format", "csv"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void givenEmployeeNoCacheHasSeen_whenGetByIdTwice_thenOnlyTheFirstReadQueries() throws Exception {
+        //given
+//        Inserted behind the application's back, so neither the representation, employee nor Hibernate cache holds it
+        jdbcTemplate.update("insert into employees (first_name, last_name, email, version) values ('Shaun', 'Murphy', 'smurphy@byid.com', 0)");
+        long id = jdbcTemplate.queryForObject("select id from employees where email = 'smurphy@byid.com'", Long.class);
+
+        //when //then
+        SqlStatementBudget.expect(1, () -> mockMvc.perform(get("/api/employees/{id}", id))
+                .andExpect(status().isOk()));
+        SqlStatementBudget.expect(0, () -> mockMvc.perform(get("/api/employees/{id}", id))
+                .andExpect(status().isOk()));
+        SqlStatementBudget.expect(1, () -> mockMvc.perform(get("/api/employees/{id}", -1L))
+                .andExpect(status().isNotFound()));
+    }
+
+    @Test
+    void givenEmployee_whenUpdatedPatchedAndDeleted_thenRunOneStatementPlusOutboxRowEach() throws Exception {
+        //given
+        long id = create("Ding", "Junhui", "djunhui@write.com");
+
+        //when //then
+        SqlStatementBudget.expect(2, () -> mockMvc.perform(put("/api/employees/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"" + id + "-0\"")
+                        .content(employee("Ding", "Junhui", "ding@write.com")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(1))));
+//        Without a version the update cannot know the version it produced, so it reads it back
+        SqlStatementBudget.expect(3, () -> mockMvc.perform(put("/api/employees/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content(employee("Ding", "Junhui", "djunhui@write.com")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(2))));
+        SqlStatementBudget.expect(2, () -> mockMvc.perform(patch("/api/employees/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Junhui\",\"version\":2}"))
+                .andExpect(status().isNoContent()));
+        SqlStatementBudget.expect(2, () -> mockMvc.perform(delete("/api/employees/{id}", id).param("version", "3"))
+                .andExpect(status().isNoContent()));
+    }
+
+    @Test
+    void givenEmployees_whenPatchedAndDeletedInBulk_thenLockChangeAndRecordEachChunkOnce() throws Exception {
+        //given
+        long first = create("Barry", "Hawkins", "bhawkins@bulk.com");
+        long second = create("Luca", "Brecel", "lbrecel@bulk.com");
+
+        //when //then
+        SqlStatementBudget.expect(3, () -> mockMvc.perform(patch("/api/employees").param("ids", first + "," + second)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"lastName\":\"Bulk\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected", is(2))));
+        SqlStatementBudget.expect(3, () -> mockMvc.perform(delete("/api/employees").param("emailDomain", "bulk.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected", is(2))));
+    }
+
+    private long create(String firstName, String lastName, String email) throws Exception {
+        String body = mockMvc.perform(post("/api/employees").contentType(MediaType.APPLICATION_JSON)
+                        .content(employee(firstName, lastName, email)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private String employee(String firstName, String lastName, String email) throws Exception {
+        return objectMapper.writeValueAsString(Employee.builder().firstName(firstName).lastName(lastName).email(email).build());
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.projects147.testing.datasource;
+
+import com.projects147.testing.config.DataSourceRoutingConfig;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Two embedded databases that do not replicate, so which one answered shows where a read was routed
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "employees.datasource.replica.url=jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1;INIT=create table if not exists "
+                + "employees (id bigint auto_increment primary key, first_name varchar(255) not null, "
+                + "last_name varchar(255) not null, email varchar(255) unique, version bigint not null)",
+        "employees.datasource.replica.username=sa",
+        "employees.datasource.replica.password=",
+        "spring.jpa.database=H2",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "employees.outbox.enabled=false"})
+@AutoConfigureMockMvc
+class DataSourceRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier(DataSourceRoutingConfig.REPLICA_DATA_SOURCE)
+    private DataSource replica;
+
+    @Test
+    void givenEmployeeOnlyOnReplica_whenRead_thenServedFromReplica() throws Exception {
+        //given
+        new JdbcTemplate(replica).update("insert into employees (first_name, last_name, email, version) values (?, ?, ?, 0)",
+                "Ronnie", "Sullivan", "rsullivan@test.com");
+
+        //when //then
+        mockMvc.perform(get("/api/employees").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].email", hasItem("rsullivan@test.com")));
+    }
+
+    @Test
+    void givenWrite_whenReadWithItsCookie_thenServedFromPrimary() throws Exception {
+        //given
+        MvcResult write = mockMvc.perform(post("/api/employees").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Mark\",\"lastName\":\"Selby\",\"email\":\"mselby@test.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Cookie cookie = write.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        //when //then
+        mockMvc.perform(get("/api/employees").param("limit", "10").cookie(cookie))
+                .andExpect(jsonPath("$.items[*].email", hasItem("mselby@test.com")));
+        mockMvc.perform(get("/api/employees").param("limit", "10"))
+                .andExpect(jsonPath("$.items[*].email", not(hasItem("mselby@test.com"))));
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.projects147.testing.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(2));
+
+    @Test
+    void givenCookieWithinWindow_whenRead_thenStickUntilItsValue() {
+        //when //then
+        assertThat(filter.primaryUntil(request("11000"), 10_000)).isEqualTo(11_000L);
+    }
+
+    @Test
+    void givenForgedFarFutureCookie_whenRead_thenStickNoLongerThanTheWindow() {
+        //when //then
+        assertThat(filter.primaryUntil(request(Long.toString(Long.MAX_VALUE)), 10_000)).isEqualTo(12_000L);
+    }
+
+    @Test
+    void givenExpiredOrMalformedCookie_whenRead_thenIgnoreIt() {
+        //when //then
+        assertThat(filter.primaryUntil(request("9000"), 10_000)).isNull();
+        assertThat(filter.primaryUntil(request("soon"), 10_000)).isNull();
+        assertThat(filter.primaryUntil(new MockHttpServletRequest(), 10_000)).isNull();
+    }
+
+    private static MockHttpServletRequest request(String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, value));
+        return request;
+    }
+
+}
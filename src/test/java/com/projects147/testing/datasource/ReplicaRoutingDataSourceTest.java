@@ -0,0 +1,119 @@
+package com.projects147.testing.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @AfterEach
+    void clearThreadState() {
+        TransactionSynchronizationManager.clear();
+        ReplicaRoutingDataSource.clearStickiness();
+    }
+
+    @Test
+    void givenReadOnlyTransaction_whenGetConnection_thenUseReplica() throws SQLException {
+        //given
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //when
+        Connection connection = routing(true).getConnection();
+
+        //then
+        assertThat(connection).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void givenReadWriteTransaction_whenGetConnection_thenUsePrimary() throws SQLException {
+        //given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        //when
+        Connection connection = routing(true).getConnection();
+
+        //then
+        assertThat(connection).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void givenCommittedWrite_whenReadOnlyTransactionOnSameThread_thenUsePrimary() throws SQLException {
+        //given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReplicaRoutingDataSource routing = routing(true);
+        TransactionSynchronizationManager.initSynchronization();
+        routing.getConnection();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clear();
+
+        //when
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Connection connection = routing.getConnection();
+
+        //then
+        assertThat(connection).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void givenUnavailableReplica_whenGetConnection_thenFallBackToPrimaryAndStopTryingReplica() throws SQLException {
+        //given
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("replica is down"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReplicaRoutingDataSource routing = routing(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //when
+        Connection first = routing.getConnection();
+        Connection second = routing.getConnection();
+
+        //then
+        assertThat(first).isSameAs(primaryConnection);
+        assertThat(second).isSameAs(primaryConnection);
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    void givenFallbackDisabled_whenReplicaUnavailable_thenThrow() throws SQLException {
+        //given
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("replica is down"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //when //then
+        assertThrows(SQLTransientConnectionException.class, () -> routing(false).getConnection());
+    }
+
+    private ReplicaRoutingDataSource routing(boolean fallbackToPrimary) {
+        return new ReplicaRoutingDataSource(primary, replica, fallbackToPrimary, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.projects147.testing.datasource;
+
+import com.projects147.testing.config.SqlAccountingConfig;
+import com.projects147.testing.integration.SqlStatementBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sql-accounting;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=H2",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "employees.outbox.enabled=false",
+        "employees.sql-accounting.header=true"})
+@AutoConfigureMockMvc
+class SqlAccountingFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void givenRequests_whenServed_thenCountStatementsPerRequest() throws Exception {
+        //when
+        SqlStatementBudget.expect(1, () -> mockMvc.perform(post("/api/employees").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Mark\",\"lastName\":\"Selby\",\"email\":\"mselby@test.com\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(SqlAccountingFilter.HEADER, startsWith("statements=1; rows=1;"))));
+
+        //then
+        assertThat(registry.get("employees.sql.statements").tag("method", "POST").tag("uri", "/api/employees")
+                .summary().totalAmount()).isEqualTo(1);
+
+        //when //then
+        SqlStatementBudget.expect(1, () -> mockMvc.perform(get("/api/employees/{id}", 1000L))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(SqlAccountingFilter.HEADER, startsWith("statements=1; rows=0;"))));
+    }
+
+    @Test
+    void givenSameStatementRunRepeatedly_whenCounted_thenFlagItAsRepeated() {
+        //given
+        try (SqlStatementCounts counts = SqlStatementCounts.open()) {
+            //when
+            for (long id = 1; id <= 3; id++)
+                jdbcTemplate.queryForList("select id from employees where id = ?", -id);
+            jdbcTemplate.queryForList("select count(*) from employees");
+
+            //then
+            assertThat(counts.statements()).isEqualTo(4);
+            assertThat(counts.rows()).isEqualTo(1);
+            assertThat(counts.repeated(3)).containsOnlyKeys("select id from employees where id = ?");
+        }
+    }
+
+    @Test
+    void givenRowCountingOff_whenQueried_thenCountStatementsButNotRowsRead() {
+        //given
+        MockEnvironment environment = new MockEnvironment().withProperty("employees.sql-accounting.count-rows", "false");
+        DataSource dataSource = (DataSource) SqlAccountingConfig.sqlAccountingDataSourceWrapper(environment)
+                .postProcessAfterInitialization(new DriverManagerDataSource("jdbc:h2:mem:sql-accounting;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""), "dataSource");
+
+        try (SqlStatementCounts counts = SqlStatementCounts.open()) {
+            //when
+            new JdbcTemplate(dataSource).queryForList("select count(*) from employees");
+
+            //then
+            assertThat(counts.statements()).isEqualTo(1);
+            assertThat(counts.rows()).isZero();
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.projects147.testing.event;
+
+import com.projects147.testing.SpringBootTestingApplication;
+import com.projects147.testing.exception.ResourceNotFoundException;
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeSuggestion;
+import com.projects147.testing.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Two nodes in one JVM sharing one embedded database; polling is left to the test so every step is deterministic
+class EmployeeOutboxTest {
+
+    private ConfigurableApplicationContext first;
+
+    private ConfigurableApplicationContext second;
+
+    @BeforeEach
+    void startNodes() {
+        String url = "jdbc:h2:mem:outbox-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        first = startNode(url);
+        second = startNode(url);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        second.close();
+        first.close();
+    }
+
+    @Test
+    void givenEmployeeCachedOnOneNode_whenChangedOnAnother_thenFollowAfterPoll() {
+        //given
+        EmployeeService firstService = first.getBean(EmployeeService.class);
+        EmployeeService secondService = second.getBean(EmployeeService.class);
+        long id = firstService.saveEmployee(Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com")
+                .build()).getId();
+        assertThat(firstService.getEmployeeById(id).get().getLastName()).isEqualTo("Selby");
+
+        //when
+        secondService.updateEmployee(Employee.builder().id(id).version(0L).firstName("Mark").lastName("Allen")
+                .email("mselby@test.com").build());
+
+        //then
+        assertThat(firstService.getEmployeeById(id).get().getLastName()).isEqualTo("Selby");
+        first.getBean(EmployeeOutbox.class).poll();
+        assertThat(firstService.getEmployeeById(id).get().getLastName()).isEqualTo("Allen");
+        assertThat(firstService.suggestEmployees("allen", 10)).containsExactly(new EmployeeSuggestion(id, "Mark", "Allen"));
+
+        //when
+        secondService.deleteEmployee(id, null);
+        first.getBean(EmployeeOutbox.class).poll();
+
+        //then
+        assertThrows(ResourceNotFoundException.class, () -> firstService.getEmployeeById(id));
+    }
+
+    private static ConfigurableApplicationContext startNode(String url) {
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database=H2",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--employees.outbox.poll-interval=1h",
+                        "--logging.level.root=WARN");
+    }
+
+}
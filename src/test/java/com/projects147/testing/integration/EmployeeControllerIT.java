@@ -45,9 +45,10 @@ public class EmployeeControllerIT extends AbstractionBaseTest {
         Employee employee = Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build();
 
         //when
-        ResultActions response = mockMvc.perform(post("/api/employees")
+//        The insert and its outbox row; the email filter has never seen the address, so there is no lookup first
+        ResultActions response = SqlStatementBudget.expect(2, () -> mockMvc.perform(post("/api/employees")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(employee)));
+                .content(objectMapper.writeValueAsString(employee))));
 
         //then
         response.andDo(print())
@@ -64,7 +65,8 @@ public class EmployeeControllerIT extends AbstractionBaseTest {
         Employee employee2 = Employee.builder().firstName("Judd").lastName("Trump").email("jtrump@test.com").build();
         employeeRepository.saveAll(List.of(employee1, employee2));
         //when
-        ResultActions response = mockMvc.perform(get("/api/employees"));
+//        The fingerprint for the ETag, then one streamed query
+        ResultActions response = SqlStatementBudget.expect(2, () -> mockMvc.perform(get("/api/employees")));
 
         //then
         response.andDo(print())
@@ -79,7 +81,7 @@ public class EmployeeControllerIT extends AbstractionBaseTest {
         Employee savedEmployee = employeeRepository.save(employee);
 
         //when
-        ResultActions response = mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId()));
+        ResultActions response = SqlStatementBudget.expect(1, () -> mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId())));
 
         //then
         response.andDo(print())
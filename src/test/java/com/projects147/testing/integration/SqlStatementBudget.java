@@ -0,0 +1,28 @@
+package com.projects147.testing.integration;
+
+import com.projects147.testing.datasource.SqlStatementCounts;
+
+import java.util.concurrent.Callable;
+
+// Fails unless the call runs exactly the budgeted number of SQL statements, listing what it ran when it does not:
+//     SqlStatementBudget.expect(2, () -> mockMvc.perform(post("/api/employees")...));
+// MockMvc serves the request on the test thread, so everything the request runs on that thread is counted.
+public final class SqlStatementBudget {
+
+    private SqlStatementBudget() {
+    }
+
+    public static <T> T expect(int statements, Callable<T> call) throws Exception {
+        try (SqlStatementCounts counts = SqlStatementCounts.open()) {
+            T result = call.call();
+            if (counts.statements() != statements) {
+                StringBuilder message = new StringBuilder("Expected " + statements + " SQL statements but ran "
+                        + counts.statements() + ":");
+                counts.executions().forEach((sql, times) -> message.append("\n  ").append(times).append(" x ").append(sql));
+                throw new AssertionError(message.toString());
+            }
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.projects147.testing.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projects147.testing.load.LoadProfile.Operation;
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.service.EmployeeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Run with: mvn verify -Pload-test [-Dload.rate=500 -Dload.concurrency=32 -Dload.duration=PT1M -Dload.p99.list=300 ...]
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:load;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=H2",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "logging.level.root=WARN"})
+public class EmployeeLoadIT {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private final AtomicLong emails = new AtomicLong();
+
+//    Reads and updates target the seeded rows, deletes only remove rows the run created itself
+    private final List<Long> seededIds = new ArrayList<>();
+
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void givenMixedWorkload_whenDrivenAtConfiguredRate_thenLatencyStaysWithinThresholds() throws Exception {
+        //given
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        seed(profile.seedRows());
+
+        //when
+        LoadReport report = run(profile);
+
+        //then
+        report.print(System.out);
+        assertThat(report.violations(profile)).isEmpty();
+    }
+
+    private void seed(int rows) {
+        List<Employee> chunk = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            chunk.add(employee());
+            if (chunk.size() == 500 || i == rows - 1) {
+                employeeService.saveEmployees(chunk);
+                chunk.forEach(employee -> seededIds.add(employee.getId()));
+                chunk = new ArrayList<>();
+            }
+        }
+    }
+
+//    Open model: requests are issued on a fixed schedule whether or not earlier ones have completed
+    private LoadReport run(LoadProfile profile) throws InterruptedException {
+        LoadReport report = new LoadReport(profile.duration());
+        ExecutorService workers = Executors.newFixedThreadPool(profile.concurrency());
+        long interval = TimeUnit.SECONDS.toNanos(1) / profile.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + profile.warmup().toNanos();
+        long end = measureFrom + profile.duration().toNanos();
+        for (long scheduled = start; scheduled < end; scheduled += interval) {
+            LockSupport.parkNanos(scheduled - System.nanoTime());
+            Operation operation = profile.pick(ThreadLocalRandom.current().nextDouble());
+            Long deleteId = operation == Operation.DELETE ? createdIds.poll() : null;
+            if (operation == Operation.DELETE && deleteId == null)
+                operation = Operation.CREATE;
+            Operation issued = operation;
+            long issuedAt = scheduled;
+            workers.execute(() -> {
+                boolean success = execute(issued, deleteId);
+                if (issuedAt >= measureFrom)
+                    report.record(issued, System.nanoTime() - issuedAt, success);
+            });
+        }
+        workers.shutdown();
+        assertThat(workers.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        return report;
+    }
+
+    private boolean execute(Operation operation, Long deleteId) {
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request(operation, deleteId), HttpResponse.BodyHandlers.ofByteArray());
+            boolean success = response.statusCode() / 100 == 2;
+            if (success && operation == Operation.CREATE)
+                createdIds.add(objectMapper.readValue(response.body(), Employee.class).getId());
+            return success;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private HttpRequest request(Operation operation, Long deleteId) throws Exception {
+        long seededId = seededIds.get(ThreadLocalRandom.current().nextInt(seededIds.size()));
+        return switch (operation) {
+            case CREATE -> json(uri("")).POST(bodyOf(employee())).build();
+            case READ -> HttpRequest.newBuilder(uri("/" + seededId)).GET().build();
+            case LIST -> HttpRequest.newBuilder(uri("")).GET().build();
+            case UPDATE -> json(uri("/" + seededId)).PUT(bodyOf(employee())).build();
+            case DELETE -> HttpRequest.newBuilder(uri("/" + deleteId)).DELETE().build();
+        };
+    }
+
+    private HttpRequest.Builder json(URI uri) {
+        return HttpRequest.newBuilder(uri).header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher bodyOf(Employee employee) throws Exception {
+        return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(employee));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api/employees" + path);
+    }
+
+    private Employee employee() {
+        long n = emails.incrementAndGet();
+        return Employee.builder().firstName("Load" + n).lastName("Test").email("load" + n + "@test.com").build();
+    }
+}
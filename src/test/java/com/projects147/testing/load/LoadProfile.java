@@ -0,0 +1,57 @@
+package com.projects147.testing.load;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Workload and pass/fail thresholds, overridable with -Dload.* system properties
+record LoadProfile(int rate, int concurrency, Duration warmup, Duration duration, int seedRows,
+                   Map<Operation, Integer> mix, Map<Operation, Duration> p99Thresholds, double maxErrorRate) {
+
+    enum Operation {
+        CREATE(10, 200), READ(55, 50), LIST(5, 500), UPDATE(20, 200), DELETE(10, 200);
+
+        private final int defaultWeight;
+
+        private final long defaultP99Millis;
+
+        Operation(int defaultWeight, long defaultP99Millis) {
+            this.defaultWeight = defaultWeight;
+            this.defaultP99Millis = defaultP99Millis;
+        }
+
+        String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    static LoadProfile fromSystemProperties() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        Map<Operation, Duration> p99Thresholds = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, Integer.getInteger("load.mix." + operation.key(), operation.defaultWeight));
+            p99Thresholds.put(operation, Duration.ofMillis(Long.getLong("load.p99." + operation.key(), operation.defaultP99Millis)));
+        }
+        return new LoadProfile(
+                Integer.getInteger("load.rate", 50),
+                Integer.getInteger("load.concurrency", 8),
+                Duration.parse(System.getProperty("load.warmup", "PT10S")),
+                Duration.parse(System.getProperty("load.duration", "PT30S")),
+                Integer.getInteger("load.seed-rows", 1000),
+                mix,
+                p99Thresholds,
+                Double.parseDouble(System.getProperty("load.max-error-rate", "0.001")));
+    }
+
+//    Picks an operation with probability proportional to its weight, for a uniform draw in [0, 1)
+    Operation pick(double draw) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        double target = draw * total;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            target -= entry.getValue();
+            if (target < 0)
+                return entry.getKey();
+        }
+        return Operation.READ;
+    }
+}
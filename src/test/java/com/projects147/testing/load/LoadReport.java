@@ -0,0 +1,81 @@
+package com.projects147.testing.load;
+
+import com.projects147.testing.load.LoadProfile.Operation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Latency per operation, measured from the moment a request was scheduled so that a stalled server cannot hide its own queueing
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final Map<Operation, Timer> latencies = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, Counter> errors = new EnumMap<>(Operation.class);
+
+    private final Duration duration;
+
+    LoadReport(Duration duration) {
+        this.duration = duration;
+        for (Operation operation : Operation.values()) {
+//            One never-rotating buffer, so the percentiles cover the whole measured run
+            latencies.put(operation, Timer.builder("load.latency")
+                    .tag("operation", operation.key())
+                    .publishPercentiles(PERCENTILES)
+                    .percentilePrecision(2)
+                    .distributionStatisticExpiry(Duration.ofDays(1))
+                    .distributionStatisticBufferLength(1)
+                    .register(registry));
+            errors.put(operation, Counter.builder("load.errors").tag("operation", operation.key()).register(registry));
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, boolean success) {
+        latencies.get(operation).record(latencyNanos, TimeUnit.NANOSECONDS);
+        if (!success)
+            errors.get(operation).increment();
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-8s %8s %7s %10s %9s %9s %9s %9s%n", "op", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            HistogramSnapshot snapshot = latencies.get(operation).takeSnapshot();
+            ValueAtPercentile[] percentiles = snapshot.percentileValues();
+            out.printf("%-8s %8d %7d %10.1f %9.1f %9.1f %9.1f %9.1f%n", operation.key(), snapshot.count(),
+                    (long) errors.get(operation).count(), snapshot.count() / (duration.toMillis() / 1000.0),
+                    percentiles[0].value(TimeUnit.MILLISECONDS), percentiles[1].value(TimeUnit.MILLISECONDS),
+                    percentiles[2].value(TimeUnit.MILLISECONDS), snapshot.max(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    List<String> violations(LoadProfile profile) {
+        List<String> violations = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            HistogramSnapshot snapshot = latencies.get(operation).takeSnapshot();
+            if (snapshot.count() == 0)
+                continue;
+            double p99 = snapshot.percentileValues()[2].value(TimeUnit.MILLISECONDS);
+            long threshold = profile.p99Thresholds().get(operation).toMillis();
+            if (p99 > threshold)
+                violations.add("%s p99 %.1f ms exceeds %d ms".formatted(operation.key(), p99, threshold));
+            double errorRate = errors.get(operation).count() / snapshot.count();
+            if (errorRate > profile.maxErrorRate())
+                violations.add("%s error rate %.4f exceeds %.4f".formatted(operation.key(), errorRate, profile.maxErrorRate()));
+        }
+        return violations;
+    }
+}
@@ -6,11 +6,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -105,17 +108,90 @@ class EmployeeRepositoryTest extends AbstractionBaseTest {
     }
 
     @Test
-    void givenEmployeeObj_whenFindByEmployeeFirstNameAndLastName_thenReturnEmployee() {
+    void givenEmployeeObjs_whenFindByEmployeeFirstNameAndLastName_thenReturnEveryNamesake() {
         //given
-        Employee employee = Employee.builder().firstName("Ronny").lastName("Roy").email("rroy@test.com").build();
-        employeeRepository.save(employee);
+        Employee employee1 = Employee.builder().firstName("Ronny").lastName("Roy").email("rroy@test.com").build();
+        Employee employee2 = Employee.builder().firstName("Ronny").lastName("Roy").email("rroy2@test.com").build();
+        employeeRepository.saveAll(List.of(employee1, employee2));
+
+        //when
+        List<Employee> result = employeeRepository.findByEmployeeFirstNameAndLastName("Ronny", "Roy");
+
+        //then
+        assertThat(result).extracting(Employee::getEmail).containsExactlyInAnyOrder("rroy@test.com", "rroy2@test.com");
+    }
+
+    @Test
+    void givenEmployeeObjs_whenSearchByNamePrefix_thenReturnMatchesInIdOrder() {
+        //given
+        Employee employee1 = Employee.builder().firstName("Ronny").lastName("Roy").email("rroy@test.com").build();
+        Employee employee2 = Employee.builder().firstName("Joseph").lastName("Kirk").email("jkirk@test.com").build();
+        Employee employee3 = Employee.builder().firstName("Rob").lastName("Royce").email("rroyce@test.com").build();
+        employeeRepository.saveAll(List.of(employee1, employee2, employee3));
+
+        //when
+        List<Employee> result = employeeRepository.searchByName("%", "Roy%", 0L, Limit.of(10));
+
+        //then
+        assertThat(result).extracting(Employee::getEmail).containsExactly("rroy@test.com", "rroyce@test.com");
+    }
+
+    @Test
+    void givenEmployeeObjs_whenFindByIdGreaterThan_thenReturnNextPageInIdOrder() {
+        //given
+        Employee employee1 = Employee.builder().firstName("Ronny").lastName("Roy").email("rroy@test.com").build();
+        Employee employee2 = Employee.builder().firstName("Joseph").lastName("Kirk").email("jkirk@test.com").build();
+        Employee employee3 = Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        employeeRepository.saveAll(List.of(employee1, employee2, employee3));
+
+        //when
+        List<Employee> page = employeeRepository.findByIdGreaterThanOrderByIdAsc(employee1.getId(), Limit.of(1));
+
+        //then
+        assertThat(page).hasSize(1);
+        assertThat(page.get(0).getLastName()).isEqualTo("Kirk");
+    }
+
+    @Test
+    void givenEmployeeWithSameEmail_whenSaved_thenViolateUniqueEmailConstraint() {
+        //given
+        employeeRepository.saveAndFlush(Employee.builder().firstName("Ronny").lastName("Roy").email("rroy@test.com").build());
+
+        //when
+        Employee duplicate = Employee.builder().firstName("Ron").lastName("Roy").email("rroy@test.com").build();
+
+        //then
+        assertThrows(DataIntegrityViolationException.class, () -> employeeRepository.saveAndFlush(duplicate));
+    }
+
+    @Test
+    void givenMatchingVersion_whenUpdateIfVersionMatches_thenUpdateRowAndBumpVersion() {
+        //given
+        Employee employee = employeeRepository.saveAndFlush(Employee.builder().firstName("Ronny").lastName("Roy").email("rroy@test.com").build());
+
+        //when
+        int updated = employeeRepository.updateIfVersionMatches(employee.getId(), employee.getVersion(), "Rohan", "Roy", "rroy@test.com");
+        int stale = employeeRepository.updateIfVersionMatches(employee.getId(), employee.getVersion(), "Ron", "Roy", "rroy@test.com");
+
+        //then
+        assertThat(updated).isEqualTo(1);
+        assertThat(stale).isEqualTo(0);
+    }
+
+    @Test
+    void givenEmployeeObj_whenDeleteIfVersionMatches_thenReturnAffectedRows() {
+        //given
+        Employee employee = employeeRepository.saveAndFlush(Employee.builder().firstName("Ronny").lastName("Roy").email("rroy@test.com").build());
 
         //when
-        Employee result = employeeRepository.findByEmployeeFirstNameAndLastName(employee.getFirstName(), employee.getLastName());
+        int stale = employeeRepository.deleteIfVersionMatches(employee.getId(), employee.getVersion() + 1);
+        int deleted = employeeRepository.deleteIfVersionMatches(employee.getId(), employee.getVersion());
+        int missing = employeeRepository.deleteIfVersionMatches(employee.getId(), null);
 
         //then
-        assertThat(result).isNotNull();
-        assertThat(result.getEmail()).isEqualTo("rroy@test.com");
+        assertThat(stale).isEqualTo(0);
+        assertThat(deleted).isEqualTo(1);
+        assertThat(missing).isEqualTo(0);
     }
 
-}
\ No newline at end of file
+}
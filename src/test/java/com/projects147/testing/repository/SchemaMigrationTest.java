@@ -0,0 +1,122 @@
+package com.projects147.testing.repository;
+
+import com.projects147.testing.config.EmployeeSchemaConfig;
+import com.projects147.testing.model.Employee;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:schema-migration;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=H2",
+        "spring.jpa.hibernate.ddl-auto=validate"})
+@ActiveProfiles("migrate")
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    void givenMigratedSchema_whenEntitiesAreValidated_thenMatchAndPersist() {
+        //given
+        Employee employee = Employee.builder().firstName("Judd").lastName("Trump").email("jtrump@test.com").build();
+
+        //when
+        Employee saved = employeeRepository.save(employee);
+
+        //then
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("5");
+        assertThat(employeeRepository.findById(saved.getId())).get().extracting(Employee::getVersion).isEqualTo(0L);
+    }
+
+    @Test
+    void givenDuplicateEmails_whenMigratingToUniqueEmail_thenKeepOldestAndRecordTheRest() {
+        //given
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:schema-dedup;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).target("2").load().migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("insert into employees (id, first_name, last_name, email) values " +
+                "(1, 'Ronnie', 'O''Sullivan', 'ronnie@test.com'), (2, 'Ronnie', 'Wood', 'ronnie@test.com'), " +
+                "(3, 'Mark', 'Allen', 'mallen@test.com'), (4, 'Ronnie', 'Barker', 'ronnie@test.com'), (5, 'No', 'Email', null), (6, 'Also', 'None', null)");
+
+        //when
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        //then
+        List<Map<String, Object>> emails = jdbcTemplate.queryForList("select id, email from employees order by id");
+        assertThat(emails).extracting(row -> row.get("EMAIL"))
+                .containsExactly("ronnie@test.com", null, "mallen@test.com", null, null, null);
+        assertThat(jdbcTemplate.queryForList("select employee_id from employee_email_duplicates order by employee_id", Long.class))
+                .containsExactly(2L, 4L);
+    }
+
+    @Test
+    void givenSchemaCreatedWithoutFlyway_whenMigrating_thenBaselineAtTheLastMigrationItMatches() {
+        //given
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:schema-baseline;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).target("2").load().migrate();
+        new JdbcTemplate(dataSource).execute("drop table \"flyway_schema_history\"");
+
+        //when
+        Flyway flyway = baselined(dataSource);
+        flyway.migrate();
+
+        //then
+        assertThat(flyway.info().applied()).extracting(MigrationInfo::getVersion).extracting(Object::toString)
+                .containsExactly("2", "3", "4", "5");
+        assertThat(flyway.info().applied()[0].getType().isBaseline()).isTrue();
+    }
+
+    @Test
+    void givenSchemaWithNameIndexesButNoVersion_whenConfiguringFlyway_thenRefuseToPickABaseline() {
+        //given
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:schema-partial;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop table \"flyway_schema_history\"");
+        jdbcTemplate.execute("create index idx_employees_last_first on employees (last_name, first_name)");
+        jdbcTemplate.execute("create index idx_employees_first_last on employees (first_name, last_name)");
+
+        //when //then
+        assertThatThrownBy(() -> baselined(dataSource))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("is at V1");
+    }
+
+    @Test
+    void givenSchemaWithoutUniqueEmailKey_whenStarting_thenFail() throws Exception {
+        //given
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:schema-no-key;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).target("2").load().migrate();
+
+        //when //then
+        assertThatThrownBy(() -> new EmployeeSchemaConfig().employeeEmailKeyCheck(dataSource).run(null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(Employee.EMAIL_CONSTRAINT);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        new EmployeeSchemaConfig().employeeEmailKeyCheck(dataSource).run(null);
+    }
+
+    private Flyway baselined(DriverManagerDataSource dataSource) {
+        FluentConfiguration configuration = Flyway.configure().dataSource(dataSource).baselineOnMigrate(true);
+        new EmployeeSchemaConfig().employeeSchemaBaseline().customize(configuration);
+        return configuration.load();
+    }
+}
@@ -0,0 +1,85 @@
+package com.projects147.testing.service;
+
+import com.projects147.testing.model.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeAsyncServiceImplTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private final ExecutorService readExecutor = Executors.newSingleThreadExecutor();
+
+    private final ExecutorService writeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+
+    @AfterEach
+    void tearDown() {
+        readExecutor.shutdownNow();
+        writeExecutor.shutdownNow();
+    }
+
+    @Test
+    void givenId_whenGetEmployeeById_thenCompleteOnReadExecutor() throws Exception {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        when(employeeService.getEmployeeById(1L)).thenAnswer(invocation -> {
+            assertThat(Thread.currentThread().getName()).startsWith("pool-");
+            return Optional.of(employee);
+        });
+        EmployeeAsyncService asyncService = new EmployeeAsyncServiceImpl(employeeService, readExecutor, writeExecutor);
+
+        //when
+        Optional<Employee> result = asyncService.getEmployeeById(1L).get(5, TimeUnit.SECONDS);
+
+        //then
+        assertThat(result).contains(employee);
+    }
+
+    @Test
+    void givenFullWriteBulkhead_whenSaveEmployee_thenFailWithRejectionWhileReadsStillComplete() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        Employee employee = Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        when(employeeService.saveEmployee(employee)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return employee;
+        });
+        when(employeeService.getEmployeeById(1L)).thenReturn(Optional.of(employee));
+        EmployeeAsyncService asyncService = new EmployeeAsyncServiceImpl(employeeService, readExecutor, writeExecutor);
+        CompletableFuture<Employee> running = asyncService.saveEmployee(employee);
+        CompletableFuture<Employee> queued = asyncService.saveEmployee(employee);
+
+        //when
+        CompletableFuture<Employee> rejected = asyncService.saveEmployee(employee);
+        Optional<Employee> read = asyncService.getEmployeeById(1L).get(5, TimeUnit.SECONDS);
+
+        //then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertThat(failure.getCause()).isInstanceOf(RejectedExecutionException.class);
+        assertThat(read).isPresent();
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isSameAs(employee);
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isSameAs(employee);
+    }
+
+}
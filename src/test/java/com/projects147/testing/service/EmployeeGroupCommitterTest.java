@@ -0,0 +1,198 @@
+package com.projects147.testing.service;
+
+import com.projects147.testing.exception.AdmissionRejectedException;
+import com.projects147.testing.exception.InvalidEmployeeException;
+import com.projects147.testing.exception.ResourceAlreadyPresentException;
+import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeBatchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeGroupCommitterTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(3);
+
+    private EmployeeGroupCommitter groupCommitter;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (groupCommitter != null)
+            groupCommitter.stop();
+    }
+
+    @Test
+    void givenConcurrentCreates_whenSave_thenCommitOneGroupAndGiveEachCallerItsOwnResult() throws Exception {
+        //given
+        groupCommitter = start(3, Duration.ofSeconds(5));
+        when(employeeService.saveEmployees(anyList())).thenAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            List<EmployeeBatchResult> results = new ArrayList<>();
+            for (Employee employee : employees) {
+                if (employee.getFirstName() == null) {
+                    results.add(EmployeeBatchResult.invalid("firstName is required"));
+                } else if (employee.getEmail().equals("taken@test.com")) {
+                    results.add(EmployeeBatchResult.duplicate(employee.getEmail()));
+                } else {
+                    employee.setId(1L);
+                    results.add(EmployeeBatchResult.created(1L));
+                }
+            }
+            return results;
+        });
+
+        //when
+        CompletableFuture<Employee> created = save(Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build());
+        CompletableFuture<Employee> duplicate = save(Employee.builder().firstName("Judd").lastName("Trump").email("taken@test.com").build());
+        CompletableFuture<Employee> invalid = save(Employee.builder().lastName("Jones").email("jones@test.com").build());
+
+        //then
+        assertThat(created.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThat(duplicate).failsWithin(5, TimeUnit.SECONDS).withThrowableThat().havingCause()
+                .isInstanceOf(ResourceAlreadyPresentException.class);
+        assertThat(invalid).failsWithin(5, TimeUnit.SECONDS).withThrowableThat().havingCause()
+                .isInstanceOf(InvalidEmployeeException.class);
+        verify(employeeService, times(1)).saveEmployees(anyList());
+    }
+
+    @Test
+    void givenConcurrentInsertOfAnEmail_whenSave_thenCommitOneByOneSoOnlyThatCallerFails() throws Exception {
+        //given
+        groupCommitter = start(2, Duration.ofSeconds(5));
+        Employee first = Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build();
+        Employee second = Employee.builder().firstName("Judd").lastName("Trump").email("jtrump@test.com").build();
+        when(employeeService.saveEmployees(anyList())).thenThrow(new ResourceAlreadyPresentException("concurrent insert"));
+        when(employeeService.saveEmployee(any())).thenAnswer(invocation -> {
+            Employee employee = invocation.getArgument(0);
+            if (employee == second)
+                throw new ResourceAlreadyPresentException("Employee already exists with email: " + employee.getEmail());
+            return employee;
+        });
+
+        //when
+        CompletableFuture<Employee> saved = save(first);
+        CompletableFuture<Employee> rejected = save(second);
+
+        //then
+        assertThat(saved.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        assertThat(rejected).failsWithin(5, TimeUnit.SECONDS).withThrowableThat().havingCause()
+                .isInstanceOf(ResourceAlreadyPresentException.class);
+    }
+
+    @Test
+    void givenStoppedCommitter_whenSave_thenReject() {
+        //given
+        groupCommitter = start(2, Duration.ofMillis(5));
+        groupCommitter.stop();
+
+        //when //then
+        assertThrows(RejectedExecutionException.class, () -> groupCommitter.save(Employee.builder().email("mselby@test.com").build()));
+    }
+
+    @Test
+    void givenStuckCommit_whenSave_thenGiveUpAfterMaxWaitPlusCommitTimeout() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        groupCommitter = start(1, Duration.ofMillis(5), 100, Duration.ofMillis(200));
+        when(employeeService.saveEmployees(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return List.of(EmployeeBatchResult.created(1L));
+        });
+
+        //when
+        CompletableFuture<Employee> stuck = save(Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build());
+
+        //then
+        assertThat(stuck).failsWithin(5, TimeUnit.SECONDS).withThrowableThat().havingCause()
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        release.countDown();
+    }
+
+    @Test
+    void givenErrorDuringCommit_whenSave_thenFailThatGroupAndKeepCommitting() throws Exception {
+        //given
+        groupCommitter = start(1, Duration.ofMillis(5));
+        when(employeeService.saveEmployees(anyList()))
+                .thenThrow(new StackOverflowError())
+                .thenReturn(List.of(EmployeeBatchResult.created(2L)));
+
+        //when
+        CompletableFuture<Employee> failed = save(Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build());
+
+        //then
+        assertThat(failed).failsWithin(5, TimeUnit.SECONDS).withThrowableThat().havingRootCause()
+                .isInstanceOf(StackOverflowError.class);
+        Employee next = Employee.builder().firstName("Judd").lastName("Trump").email("jtrump@test.com").build();
+        assertThat(save(next).get(5, TimeUnit.SECONDS)).isSameAs(next);
+    }
+
+    @Test
+    void givenFullQueue_whenSave_thenRejectInsteadOfWaiting() throws Exception {
+        //given
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        groupCommitter = start(1, Duration.ofMillis(5), 1, Duration.ofSeconds(10));
+        when(employeeService.saveEmployees(anyList())).thenAnswer(invocation -> {
+            committing.countDown();
+            release.await();
+            return List.of(EmployeeBatchResult.created(1L));
+        });
+        save(Employee.builder().firstName("Mark").lastName("Selby").email("mselby@test.com").build());
+        assertThat(committing.await(5, TimeUnit.SECONDS)).isTrue();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        groupCommitter.bindTo(registry);
+        save(Employee.builder().firstName("Judd").lastName("Trump").email("jtrump@test.com").build());
+        while (registry.get("employees.group.commit.queued").gauge().value() < 1)
+            Thread.onSpinWait();
+
+        //when //then
+        assertThrows(AdmissionRejectedException.class,
+                () -> groupCommitter.save(Employee.builder().firstName("Neil").lastName("Robertson").email("nr@test.com").build()));
+        release.countDown();
+    }
+
+    private EmployeeGroupCommitter start(int maxBatch, Duration maxWait) {
+        return start(maxBatch, maxWait, 100, Duration.ofSeconds(10));
+    }
+
+    private EmployeeGroupCommitter start(int maxBatch, Duration maxWait, int queueCapacity, Duration commitTimeout) {
+        EmployeeGroupCommitter committer = new EmployeeGroupCommitter(employeeService,
+                new EmployeeGroupCommitProperties(maxBatch, maxWait, 1, queueCapacity, commitTimeout));
+        committer.start();
+        return committer;
+    }
+
+    private CompletableFuture<Employee> save(Employee employee) {
+        return CompletableFuture.supplyAsync(() -> groupCommitter.save(employee), callers);
+    }
+
+}
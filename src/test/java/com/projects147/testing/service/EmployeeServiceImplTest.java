@@ -1,23 +1,63 @@
 package com.projects147.testing.service;
 
+import com.projects147.testing.cache.EmailBloomFilter;
+import com.projects147.testing.cache.EmployeeCache;
+import com.projects147.testing.cache.EmployeeCacheProperties;
+import com.projects147.testing.cache.EmployeeNameIndex;
+import com.projects147.testing.event.EmployeeChangedEvent;
+import com.projects147.testing.exception.InvalidCriteriaException;
+import com.projects147.testing.exception.InvalidCursorException;
+import com.projects147.testing.exception.InvalidSearchException;
 import com.projects147.testing.exception.ResourceAlreadyPresentException;
+import com.projects147.testing.exception.ResourceConflictException;
 import com.projects147.testing.exception.ResourceNotFoundException;
 import com.projects147.testing.model.Employee;
+import com.projects147.testing.model.EmployeeBatchResult;
+import com.projects147.testing.model.EmployeeCriteria;
+import com.projects147.testing.model.EmployeeCursor;
+import com.projects147.testing.model.EmployeeFields;
+import com.projects147.testing.model.EmployeePage;
+import com.projects147.testing.model.EmployeePatch;
+import com.projects147.testing.model.EmployeeSuggestion;
+import com.projects147.testing.repository.EmployeeJdbcRepository;
+import com.projects147.testing.repository.EmployeeProjectionRepository;
 import com.projects147.testing.repository.EmployeeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +66,30 @@ class EmployeeServiceImplTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EmployeeJdbcRepository employeeJdbcRepository;
+
+    @Mock
+    private EmployeeProjectionRepository employeeProjectionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EmailBloomFilter emailBloomFilter;
+
+    @Mock
+    private ObjectProvider<EmployeeNameIndex> employeeNameIndex;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private EmployeeCache employeeCache = new EmployeeCache(new EmployeeCacheProperties(100, Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ZERO));
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -33,22 +97,36 @@ class EmployeeServiceImplTest {
     void givenEmployeeObjNew_whenSaveEmployee_thenReturnEmployeeObj() {
         //given
         Employee employee = Employee.builder().firstName("Mark").lastName("Selby").email("mselby147@test.com").build();
-//        BDDMockito.given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
 //        BDDMockito.given(employeeRepository.save(employee)).willReturn(employee);
-        when(employeeRepository.findByEmail(employee.getEmail())).thenReturn(Optional.empty());
-        when(employeeRepository.save(employee)).thenReturn(employee);
+        when(employeeRepository.save(employee)).thenReturn(Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby147@test.com").build());
 
         //when
         Employee savedEmployee = employeeService.saveEmployee(employee);
 
         //then
         assertThat(savedEmployee).isNotNull();
+        verify(employeeRepository, times(0)).findByEmail(any());
     }
 
     @Test
     void givenEmployeeObjPresentInDatabase_whenSaveEmployee_thenThrowException() {
         //given
         Employee employee = Employee.builder().firstName("Mark").lastName("Selby").email("mselby147@test.com").build();
+        when(employeeRepository.save(employee)).thenThrow(new DataIntegrityViolationException("Duplicate entry",
+                new ConstraintViolationException("Duplicate entry", new SQLException(), "employees." + Employee.EMAIL_CONSTRAINT)));
+
+        //when
+        assertThrows(ResourceAlreadyPresentException.class, () -> employeeService.saveEmployee(employee));
+
+        //then
+        verify(employeeRepository, times(0)).findByEmail(any());
+    }
+
+    @Test
+    void givenEmailMaybeKnownAndPresent_whenSaveEmployee_thenThrowExceptionWithoutInsert() {
+        //given
+        Employee employee = Employee.builder().firstName("Mark").lastName("Selby").email("mselby147@test.com").build();
+        when(emailBloomFilter.mightContain(employee.getEmail())).thenReturn(true);
         when(employeeRepository.findByEmail(employee.getEmail())).thenReturn(Optional.of(employee));
 
         //when
@@ -58,6 +136,102 @@ class EmployeeServiceImplTest {
         verify(employeeRepository, times(0)).save(any(Employee.class));
     }
 
+    @Test
+    void givenEmailMaybeKnownButAbsent_whenSaveEmployee_thenRecordFalsePositiveAndInsert() {
+        //given
+        Employee employee = Employee.builder().firstName("Mark").lastName("Selby").email("mselby147@test.com").build();
+        when(emailBloomFilter.mightContain(employee.getEmail())).thenReturn(true);
+        when(employeeRepository.findByEmail(employee.getEmail())).thenReturn(Optional.empty());
+        when(employeeRepository.save(employee)).thenReturn(Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby147@test.com").build());
+
+        //when
+        employeeService.saveEmployee(employee);
+
+        //then
+        verify(emailBloomFilter, times(1)).recordFalsePositive();
+        verify(employeeRepository, times(1)).save(employee);
+    }
+
+    @Test
+    void givenOtherConstraintViolation_whenSaveEmployee_thenRethrowException() {
+        //given
+        Employee employee = Employee.builder().lastName("Selby").email("mselby147@test.com").build();
+        when(employeeRepository.save(employee)).thenThrow(new DataIntegrityViolationException("Column 'first_name' cannot be null",
+                new ConstraintViolationException("Column 'first_name' cannot be null", new SQLException(), null)));
+
+        //when
+        assertThrows(DataIntegrityViolationException.class, () -> employeeService.saveEmployee(employee));
+    }
+
+    @Test
+    void givenMixedBatch_whenSaveEmployees_thenInsertOnlyNewEmployeesWithOneLookup() {
+        //given
+        Employee existing = Employee.builder().firstName("Mark").lastName("Selby").email("mselby147@test.com").build();
+        Employee fresh = Employee.builder().firstName("Ken").lastName("Doherty").email("mdoherty147@test.com").build();
+        Employee repeated = Employee.builder().firstName("Kenny").lastName("Doherty").email("mdoherty147@test.com").build();
+        Employee invalid = Employee.builder().firstName("Judd").lastName("Trump").build();
+        when(emailBloomFilter.mightContain(any())).thenAnswer(invocation -> "mselby147@test.com".equals(invocation.getArgument(0)));
+        when(employeeRepository.findEmailsByEmailIn(Set.of("mselby147@test.com", "mdoherty147@test.com"))).thenReturn(Set.of("mselby147@test.com"));
+        doAnswer(invocation -> {
+            List<Employee> inserts = invocation.getArgument(0);
+            inserts.get(0).setId(7L);
+            return null;
+        }).when(employeeJdbcRepository).insertAll(anyList());
+
+        //when
+        List<EmployeeBatchResult> results = employeeService.saveEmployees(List.of(existing, fresh, repeated, invalid));
+
+        //then
+        assertThat(results).extracting(EmployeeBatchResult::status).containsExactly(
+                EmployeeBatchResult.Status.DUPLICATE, EmployeeBatchResult.Status.CREATED,
+                EmployeeBatchResult.Status.DUPLICATE, EmployeeBatchResult.Status.INVALID);
+        assertThat(results.get(1).id()).isEqualTo(7L);
+        verify(employeeRepository, times(1)).findEmailsByEmailIn(any());
+        verify(employeeJdbcRepository, times(1)).insertAll(List.of(fresh));
+    }
+
+    @Test
+    void givenEmailsDifferingOnlyInCase_whenSaveEmployees_thenTreatThemAsDuplicates() {
+        //given
+        Employee upper = Employee.builder().firstName("Mark").lastName("Selby").email("Foo@x.com").build();
+        Employee lower = Employee.builder().firstName("Judd").lastName("Trump").email("foo@x.com").build();
+        Employee stored = Employee.builder().firstName("Ken").lastName("Doherty").email("BAR@x.com").build();
+        when(emailBloomFilter.mightContain(any())).thenAnswer(invocation -> "BAR@x.com".equals(invocation.getArgument(0)));
+        when(employeeRepository.findEmailsByEmailIn(Set.of("Foo@x.com", "foo@x.com", "BAR@x.com"))).thenReturn(Set.of("bar@x.com"));
+        doAnswer(invocation -> {
+            List<Employee> inserts = invocation.getArgument(0);
+            inserts.get(0).setId(7L);
+            return null;
+        }).when(employeeJdbcRepository).insertAll(anyList());
+
+        //when
+        List<EmployeeBatchResult> results = employeeService.saveEmployees(List.of(upper, lower, stored));
+
+        //then
+        assertThat(results).extracting(EmployeeBatchResult::status).containsExactly(
+                EmployeeBatchResult.Status.CREATED, EmployeeBatchResult.Status.DUPLICATE, EmployeeBatchResult.Status.DUPLICATE);
+        verify(employeeJdbcRepository, times(1)).insertAll(List.of(upper));
+    }
+
+    @Test
+    void givenOnlyUnknownEmails_whenSaveEmployees_thenSkipDuplicateLookup() {
+        //given
+        Employee fresh = Employee.builder().firstName("Ken").lastName("Doherty").email("mdoherty147@test.com").build();
+        when(emailBloomFilter.mightContain(fresh.getEmail())).thenReturn(false);
+        doAnswer(invocation -> {
+            List<Employee> inserts = invocation.getArgument(0);
+            inserts.get(0).setId(7L);
+            return null;
+        }).when(employeeJdbcRepository).insertAll(anyList());
+
+        //when
+        employeeService.saveEmployees(List.of(fresh));
+
+        //then
+        verify(employeeRepository, times(0)).findEmailsByEmailIn(any());
+        verify(employeeJdbcRepository, times(1)).insertAll(List.of(fresh));
+    }
+
     @Test
     void givenEmployeeObjs_whenGetAllEmployees_thenReturnEmployeeList() {
         //given
@@ -86,6 +260,122 @@ class EmployeeServiceImplTest {
         assertThat(employees.size()).isEqualTo(0);
     }
 
+    @Test
+    void givenMoreRowsThanLimit_whenGetEmployeePage_thenReturnPageWithNextCursor() {
+        //given
+        Employee employee1 = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby147@test.com").build();
+        Employee employee2 = Employee.builder().id(2L).firstName("Ken").lastName("Doherty").email("mdoherty147@test.com").build();
+        Employee employee3 = Employee.builder().id(3L).firstName("Judd").lastName("Trump").email("jtrump147@test.com").build();
+        when(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(employee1, employee2, employee3));
+
+        //when
+        EmployeePage<Employee> page = employeeService.getEmployeePage(null, 2);
+
+        //then
+        assertThat(page.items()).containsExactly(employee1, employee2);
+        assertThat(EmployeeCursor.decode(page.nextCursor())).isEqualTo(2L);
+    }
+
+    @Test
+    void givenCursorOnLastPage_whenGetEmployeePage_thenReturnPageWithoutNextCursor() {
+        //given
+        Employee employee3 = Employee.builder().id(3L).firstName("Judd").lastName("Trump").email("jtrump147@test.com").build();
+        when(employeeRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(3))).thenReturn(List.of(employee3));
+
+        //when
+        EmployeePage<Employee> page = employeeService.getEmployeePage(EmployeeCursor.encode(2L), 2);
+
+        //then
+        assertThat(page.items()).containsExactly(employee3);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void givenFields_whenGetEmployeePage_thenReturnOnlyThoseFieldsAndCursorFromId() {
+        //given
+        EmployeeFields fields = EmployeeFields.parse("lastName");
+        Tuple row1 = mock(Tuple.class);
+        Tuple row2 = mock(Tuple.class);
+        when(row1.get("lastName")).thenReturn("Selby");
+        when(row2.get("id", Long.class)).thenReturn(2L);
+        when(row2.get("lastName")).thenReturn("Doherty");
+        when(employeeProjectionRepository.findByIdGreaterThan(fields, 0L, 3)).thenReturn(List.of(row1, row2, mock(Tuple.class)));
+
+        //when
+        EmployeePage<Map<String, Object>> page = employeeService.getEmployeePage(null, 2, fields);
+
+        //then
+        assertThat(page.items()).containsExactly(Map.of("lastName", "Selby"), Map.of("lastName", "Doherty"));
+        assertThat(EmployeeCursor.decode(page.nextCursor())).isEqualTo(2L);
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void givenLastNamePrefix_whenSearchEmployees_thenQueryWithEscapedPrefixPattern() {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("Ken").lastName("O_Brien").email("kobrien147@test.com").build();
+        when(employeeRepository.searchByName("%", "O!_B%", 0L, Limit.of(21))).thenReturn(List.of(employee));
+
+        //when
+        EmployeePage<Employee> page = employeeService.searchEmployees(null, " O_B ", true, null, 20);
+
+        //then
+        assertThat(page.items()).containsExactly(employee);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void givenNoName_whenSearchEmployees_thenThrowException() {
+        //when
+        assertThrows(InvalidSearchException.class, () -> employeeService.searchEmployees(" ", null, false, null, 20));
+
+        //then
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void givenNameIndexNotReady_whenSuggestEmployees_thenFallBackToDatabase() {
+        //given
+        EmployeeNameIndex index = mock(EmployeeNameIndex.class);
+        when(employeeNameIndex.getIfAvailable()).thenReturn(index);
+        when(index.isReady()).thenReturn(false);
+        EmployeeSuggestion suggestion = new EmployeeSuggestion(1L, "Mark", "Selby");
+        when(employeeRepository.findSuggestions("Sel%", Limit.of(10))).thenReturn(List.of(suggestion));
+
+        //when
+        List<EmployeeSuggestion> suggestions = employeeService.suggestEmployees("Sel", 10);
+
+        //then
+        assertThat(suggestions).containsExactly(suggestion);
+        verify(index, times(0)).suggest(any(), any(Integer.class));
+    }
+
+    @Test
+    void givenInvalidCursor_whenGetEmployeePage_thenThrowException() {
+        //when
+        assertThrows(InvalidCursorException.class, () -> employeeService.getEmployeePage("not-a-cursor", 10));
+
+        //then
+        verify(employeeRepository, times(0)).findByIdGreaterThanOrderByIdAsc(any(Long.class), any(Limit.class));
+    }
+
+    @Test
+    void givenEmployees_whenStreamAllEmployees_thenConsumeAndDetachEachEmployee() {
+        //given
+        Employee employee1 = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby147@test.com").build();
+        Employee employee2 = Employee.builder().id(2L).firstName("Ken").lastName("Doherty").email("mdoherty147@test.com").build();
+        when(employeeRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(employee1, employee2));
+        List<Employee> consumed = new ArrayList<>();
+
+        //when
+        employeeService.streamAllEmployees(consumed::add);
+
+        //then
+        assertThat(consumed).containsExactly(employee1, employee2);
+        verify(entityManager, times(1)).detach(employee1);
+        verify(entityManager, times(1)).detach(employee2);
+    }
+
     @Test
     void givenId_whenGetEmployeeById_thenReturnEmployee() {
         //given
@@ -114,62 +404,217 @@ class EmployeeServiceImplTest {
     }
 
     @Test
-    void givenEmployee_whenUpdateEmployee_thenReturnUpdatedEmployee() {
+    void givenCachedEmployee_whenGetEmployeeByIdAgain_thenDoNotQueryRepository() {
         //given
         Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby147@test.com").build();
-        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.of(employee));
-        when(employeeRepository.save(employee)).thenReturn(employee);
+        when(employeeRepository.findById(1L)).thenReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+
+        //when
+        Optional<Employee> employeeById = employeeService.getEmployeeById(1L);
+
+        //then
+        assertThat(employeeById).contains(employee);
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void givenCachedMiss_whenGetEmployeeByIdAgain_thenThrowExceptionWithoutQueryingRepository() {
+        //given
+        when(employeeRepository.findById(1L)).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.getEmployeeById(1L));
+
+        //when
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.getEmployeeById(1L));
+
+        //then
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void givenEmployee_whenUpdateEmployee_thenReturnUpdatedEmployee() {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby147@test.com").version(3L).build();
+        when(employeeRepository.updateIfVersionMatches(1L, 3L, "Mark", "Selby", "mselby147@test.com")).thenReturn(1);
 
         //when
         Employee updatedEmp = employeeService.updateEmployee(employee);
 
         //then
         assertThat(updatedEmp).isNotNull();
-        verify(employeeRepository, times(1)).findById(any());
-        verify(employeeRepository, times(1)).save(any(Employee.class));
+        assertThat(updatedEmp.getVersion()).isEqualTo(4L);
+        verify(employeeRepository, times(0)).findById(any());
+        verify(employeeRepository, times(0)).save(any(Employee.class));
+        verify(eventPublisher, times(1)).publishEvent(argThat((EmployeeChangedEvent event) ->
+                event.type() == EmployeeChangedEvent.Type.UPDATED && event.id() == 1L));
     }
 
     @Test
     void givenEmployee_whenUpdateEmployee_thenThrowException() {
         //given
         Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby147@test.com").build();
-        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.empty());
+        when(employeeRepository.updateIfVersionMatches(1L, null, "Mark", "Selby", "mselby147@test.com")).thenReturn(0);
 
         //when
         Assertions.assertThrows(ResourceNotFoundException.class, () -> employeeService.updateEmployee(employee));
 
         //then
-        verify(employeeRepository, times(1)).findById(any());
-        verify(employeeRepository, times(0)).save(any(Employee.class));
+        verify(employeeRepository, times(0)).existsById(any());
+        verify(eventPublisher, times(0)).publishEvent(any());
+    }
+
+    @Test
+    void givenStaleVersion_whenUpdateEmployee_thenThrowConflictException() {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby147@test.com").version(3L).build();
+        when(employeeRepository.updateIfVersionMatches(1L, 3L, "Mark", "Selby", "mselby147@test.com")).thenReturn(0);
+        when(employeeRepository.existsById(1L)).thenReturn(true);
+
+        //when
+        Assertions.assertThrows(ResourceConflictException.class, () -> employeeService.updateEmployee(employee));
+
+        //then
+        verify(eventPublisher, times(0)).publishEvent(any());
+    }
+
+    @Test
+    void givenPatch_whenPatchEmployee_thenUpdateOnlySuppliedFields() {
+        //given
+        EmployeePatch patch = new EmployeePatch(null, null, "mark.selby@test.com", 2L);
+        when(employeeRepository.patchIfVersionMatches(1L, 2L, null, null, "mark.selby@test.com")).thenReturn(1);
+
+        //when
+        employeeService.patchEmployee(1L, patch);
+
+        //then
+        verify(employeeRepository, times(0)).findById(any());
+        verify(eventPublisher, times(1)).publishEvent(argThat((EmployeeChangedEvent event) ->
+                event.id() == 1L && "mark.selby@test.com".equals(event.employee().getEmail())));
+    }
+
+    @Test
+    void givenPatchForMissingEmployee_whenPatchEmployee_thenThrowException() {
+        //given
+        EmployeePatch patch = new EmployeePatch("Mark", null, null, 2L);
+        when(employeeRepository.patchIfVersionMatches(1L, 2L, "Mark", null, null)).thenReturn(0);
+        when(employeeRepository.existsById(1L)).thenReturn(false);
+
+        //when
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> employeeService.patchEmployee(1L, patch));
+    }
+
+    @Test
+    void givenEmailDomain_whenDeleteEmployees_thenDeleteChunkByChunkAndPublishEachId() {
+        //given
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        List<Long> firstChunk = LongStream.rangeClosed(1, EmployeeServiceImpl.BULK_CHUNK_SIZE).boxed().toList();
+        when(employeeProjectionRepository.lockIds(null, "%@old!_corp.com", null, 0L, EmployeeServiceImpl.BULK_CHUNK_SIZE))
+                .thenReturn(firstChunk);
+        when(employeeProjectionRepository.lockIds(null, "%@old!_corp.com", null, (long) EmployeeServiceImpl.BULK_CHUNK_SIZE,
+                EmployeeServiceImpl.BULK_CHUNK_SIZE)).thenReturn(List.of(5000L));
+        when(employeeRepository.deleteByIdIn(firstChunk)).thenReturn(firstChunk.size());
+        when(employeeRepository.deleteByIdIn(List.of(5000L))).thenReturn(1);
+
+        //when
+        int deleted = employeeService.deleteEmployees(new EmployeeCriteria(null, "old_corp.com", null));
+
+        //then
+        assertThat(deleted).isEqualTo(EmployeeServiceImpl.BULK_CHUNK_SIZE + 1);
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(eventPublisher, times(EmployeeServiceImpl.BULK_CHUNK_SIZE + 1)).publishEvent(any(EmployeeChangedEvent.class));
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(5000L));
+    }
+
+    @Test
+    void givenUnsortedDuplicateIds_whenDeleteEmployees_thenLockEachSortedChunkWithOnlyItsOwnIds() {
+        //given
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        List<Long> ids = new ArrayList<>(LongStream.rangeClosed(1, 2L * EmployeeServiceImpl.BULK_CHUNK_SIZE + 1).boxed().toList());
+        Collections.reverse(ids);
+        ids.addAll(List.of(5L, 2001L));
+        when(employeeProjectionRepository.lockIds(anyList(), isNull(), isNull(), isNull(), anyInt()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(employeeRepository.deleteByIdIn(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        //when
+        int deleted = employeeService.deleteEmployees(new EmployeeCriteria(ids, null, null));
+
+        //then
+        assertThat(deleted).isEqualTo(2 * EmployeeServiceImpl.BULK_CHUNK_SIZE + 1);
+        verify(employeeProjectionRepository).lockIds(LongStream.rangeClosed(1, 1000).boxed().toList(), null, null, null, 1000);
+        verify(employeeProjectionRepository).lockIds(LongStream.rangeClosed(1001, 2000).boxed().toList(), null, null, null, 1000);
+        verify(employeeProjectionRepository).lockIds(List.of(2001L), null, null, null, 1);
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    @Test
+    void givenNoCriteriaOrEmail_whenBulkChange_thenThrowExceptionWithoutTouchingRows() {
+        //when
+        Assertions.assertThrows(InvalidCriteriaException.class,
+                () -> employeeService.deleteEmployees(new EmployeeCriteria(List.of(), " ", null)));
+        Assertions.assertThrows(InvalidCriteriaException.class, () -> employeeService.patchEmployees(
+                new EmployeeCriteria(null, null, "Selby"), new EmployeePatch(null, null, "mselby@test.com", null)));
+
+        //then
+        verify(transactionTemplate, times(0)).execute(any());
     }
 
     @Test
     void givenId_whenDeleteEmployee_thenSuccess() {
         //given
         Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby147@test.com").build();
-        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.of(employee));
-        doNothing().when(employeeRepository).deleteById(employee.getId());
+        when(employeeRepository.deleteIfVersionMatches(employee.getId(), null)).thenReturn(1);
+
+        //when
+        employeeService.deleteEmployee(employee.getId(), null);
+
+        //then
+        verify(employeeRepository, times(0)).findById(any());
+        verify(employeeRepository, times(1)).deleteIfVersionMatches(1L, null);
+        verify(eventPublisher, times(1)).publishEvent(EmployeeChangedEvent.deleted(employee.getId()));
+    }
+
+    @Test
+    void givenStaleVersion_whenDeleteEmployee_thenThrowConflictException() {
+        //given
+        when(employeeRepository.deleteIfVersionMatches(1L, 3L)).thenReturn(0);
+        when(employeeRepository.existsById(1L)).thenReturn(true);
+
+        //when
+        Assertions.assertThrows(ResourceConflictException.class, () -> employeeService.deleteEmployee(1L, 3L));
+
+        //then
+        verify(eventPublisher, times(0)).publishEvent(any());
+    }
+
+    @Test
+    void givenNoVersion_whenUpdateEmployee_thenReturnTheVersionItProduced() {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby147@test.com").build();
+        when(employeeRepository.updateIfVersionMatches(1L, null, "Mark", "Selby", "mselby147@test.com")).thenReturn(1);
+        when(employeeRepository.findVersionById(1L)).thenReturn(6L);
 
         //when
-        employeeService.deleteEmployee(employee.getId());
+        Employee updatedEmp = employeeService.updateEmployee(employee);
 
         //then
-        verify(employeeRepository, times(1)).findById(any());
-        verify(employeeRepository, times(1)).deleteById(any());
+        assertThat(updatedEmp.getVersion()).isEqualTo(6L);
     }
 
     @Test
     void givenId_whenDeleteEmployee_thenThrowException() {
         //given
         Employee employee = Employee.builder().id(1L).firstName("Mark").lastName("Selby").email("mselby147@test.com").build();
-        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.empty());
+        when(employeeRepository.deleteIfVersionMatches(employee.getId(), null)).thenReturn(0);
 
         //when
-        Assertions.assertThrows(ResourceNotFoundException.class, () -> employeeService.deleteEmployee(employee.getId()));
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> employeeService.deleteEmployee(employee.getId(), null));
 
         //then
-        verify(employeeRepository, times(1)).findById(any());
-        verify(employeeRepository, times(0)).deleteById(any());
+        verify(employeeRepository, times(1)).deleteIfVersionMatches(1L, null);
+        verify(eventPublisher, times(0)).publishEvent(any());
     }
 
 }